@@ -0,0 +1,100 @@
+package com.darunkar.design_patterns;/*
+ SingletonAccessBenchmark.java
+ JMH comparison of the singleton accessors from SingletonDemo:
+ - ConnectionPoolDCL.getInstance()    (volatile read, synchronized lazy init)
+ - ConnectionPoolEnum.INSTANCE        (enum constant)
+ - ConnectionPoolHolder.getInstance() (initialization-on-demand holder)
+
+ Steady state: throughput + sampled latency once the instance exists.
+ Cold: one shot per freshly forked JVM, i.e. the very first access including class init
+       and pool creation, with all benchmark threads racing for it.
+
+ How to run (sweeps 1, 4, 16 and 64 threads, JSON per thread count in target/jmh/):
+   mvn -Pjmh compile exec:exec -Djmh.main=com.darunkar.design_patterns.SingletonAccessBenchmark
+*/
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SingletonAccessBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+
+    // Every benchmark returns Object so the generated JMH code doesn't need the package-private types
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @Fork(1)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Object steadyDcl() {
+        return ConnectionPoolDCL.getInstance();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @Fork(1)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Object steadyEnum() {
+        return ConnectionPoolEnum.INSTANCE;
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+    @Fork(1)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public Object steadyHolder() {
+        return ConnectionPoolHolder.getInstance();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(10)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public Object coldDcl() {
+        return ConnectionPoolDCL.getInstance();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(10)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public Object coldEnum() {
+        return ConnectionPoolEnum.INSTANCE;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(10)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public Object coldHolder() {
+        return ConnectionPoolHolder.getInstance();
+    }
+
+    public static void main(String[] args) throws Exception {
+        File resultDir = new File("target/jmh");
+        resultDir.mkdirs();
+
+        for (int threads : THREAD_COUNTS) {
+            Options options = new OptionsBuilder()
+                    .include(SingletonAccessBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "singleton-access-" + threads + "t.json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.darunkar.design_patterns.flyweight;/*
+ TextStyleLookupBenchmark.java
+ Allocation check for TextStyleFactory lookups. With the GC profiler, gc.alloc.rate.norm
+ should be ~0 B/op for the factory lookups; objectsHash shows what the old
+ Objects.hash-based key cost per call.
+
+ How to run:
+   mvn -Pjmh compile exec:exec -Djmh.args="TextStyleLookupBenchmark -prof gc"
+*/
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TextStyleLookupBenchmark {
+
+    private static final String[] FONTS = {"Arial", "Times New Roman", "Courier"};
+    private static final String[] COLORS = {"Black", "Red", "Blue", "Green"};
+
+    private TextStyleFactory factory;
+    private long[] keys;
+    private int next; // wraps after 2^31 calls, hence the & Integer.MAX_VALUE below
+
+    @Setup
+    public void setUp() {
+        factory = new TextStyleFactory();
+        keys = new long[FONTS.length * COLORS.length];
+        int k = 0;
+        for (String font : FONTS) {
+            for (String color : COLORS) {
+                keys[k++] = factory.keyOf(font, 12, color);
+                factory.getStyle(font, 12, color);
+            }
+        }
+    }
+
+    @Benchmark
+    public TextStyle lookupByAttributes() {
+        int i = next++ & Integer.MAX_VALUE;
+        return factory.getStyle(FONTS[i % FONTS.length], 12, COLORS[i % COLORS.length]);
+    }
+
+    @Benchmark
+    public TextStyle lookupByPackedKey() {
+        return factory.getStyle(keys[(next++ & Integer.MAX_VALUE) % keys.length]);
+    }
+
+    @Benchmark
+    public int objectsHash() {
+        int i = next++ & Integer.MAX_VALUE;
+        return Objects.hash(FONTS[i % FONTS.length], 12, COLORS[i % COLORS.length]);
+    }
+}
@@ -2,6 +2,11 @@ package com.darunkar.design_patterns;
 
 import javax.print.attribute.standard.MediaSize;
 
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 interface Button{
     void render();
 }
@@ -73,16 +78,33 @@ class DarkUIFactory implements UIFactory {
     }
 }
 
+enum Theme {
+    LIGHT, DARK
+}
+
+// Factories are stateless, so one instance per theme is built up front and handed out on every call
 class UIFactoryProvider{
 
-    public static UIFactory getFactory(String type) {
-        if(type.equalsIgnoreCase("light")) {
-            return new LightUIFactory();
-        }else if(type.equalsIgnoreCase("dark")){
-            return new DarkUIFactory();
-        }
+    private static final Map<Theme, UIFactory> FACTORIES = new EnumMap<>(Map.of(
+            Theme.LIGHT, new LightUIFactory(),
+            Theme.DARK, new DarkUIFactory()));
+    private static final Map<String, UIFactory> BY_NAME = new HashMap<>();
 
-        throw new IllegalArgumentException("Unknown Theme : " + type);
+    static {
+        FACTORIES.forEach((theme, factory) -> BY_NAME.put(theme.name().toLowerCase(Locale.ROOT), factory));
+    }
+
+    public static UIFactory getFactory(Theme theme) {
+        if(theme == null) throw new IllegalArgumentException("Theme is required");
+        return FACTORIES.get(theme);
+    }
+
+    public static UIFactory getFactory(String type) {
+        if(type == null) throw new IllegalArgumentException("Theme is required");
+        UIFactory factory = BY_NAME.get(type);
+        if(factory == null) factory = BY_NAME.get(type.toLowerCase(Locale.ROOT));
+        if(factory == null) throw new IllegalArgumentException("Unknown Theme : " + type);
+        return factory;
     }
 }
 
@@ -0,0 +1,97 @@
+package com.darunkar.design_patterns;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Audit events go into a bounded queue and a single writer thread hands them to the sink in batches,
+// so callers never block on stdout or a log file. When the queue is full, events are dropped and counted.
+class AsyncAuditLogger implements AuditLogger, AutoCloseable{
+
+    record AuditEvent(long timestampMillis, String role, String productId, boolean granted){}
+
+    private final BlockingQueue<AuditEvent> queue;
+    private final Consumer<List<AuditEvent>> sink;
+    private final int batchSize;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean closed;
+
+    AsyncAuditLogger(Consumer<List<AuditEvent>> sink, int capacity, int batchSize){
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.writer = new Thread(this::drain, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Shared logger printing to stdout, flushed on JVM shutdown
+    static AsyncAuditLogger console(){
+        return ConsoleHolder.INSTANCE;
+    }
+
+    private static final class ConsoleHolder{
+        static final AsyncAuditLogger INSTANCE = new AsyncAuditLogger(AsyncAuditLogger::print, 10_000, 256);
+
+        static{
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::close, "audit-flush"));
+        }
+    }
+
+    private static void print(List<AuditEvent> batch){
+        StringBuilder lines = new StringBuilder();
+        for(AuditEvent event : batch){
+            lines.append(event.granted() ? "Access Granted" : "Access Denied")
+                    .append(" role=").append(event.role())
+                    .append(" productId=").append(event.productId())
+                    .append(System.lineSeparator());
+        }
+        System.out.print(lines);
+    }
+
+    @Override
+    public void record(String role, String productId, boolean granted){
+        if(closed || !queue.offer(new AuditEvent(System.currentTimeMillis(), role, productId, granted))){
+            dropped.increment();
+        }
+    }
+
+    private void drain(){
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while(!closed || !queue.isEmpty()){
+            try{
+                AuditEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if(first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                sink.accept(batch);
+            }catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+                return;
+            }catch(RuntimeException ex){
+                // a failing sink loses this batch, not the writer thread
+            }
+            batch.clear();
+        }
+    }
+
+    long droppedEvents(){
+        return dropped.sum();
+    }
+
+    // Stops accepting events and waits for the queued ones to be written
+    @Override
+    public void close(){
+        closed = true;
+        try{
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.darunkar.design_patterns;
+
+interface AuditLogger{
+    AuditLogger NOOP = (role, productId, granted) -> {};
+
+    void record(String role, String productId, boolean granted);
+}
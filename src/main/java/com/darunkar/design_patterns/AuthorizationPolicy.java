@@ -0,0 +1,6 @@
+package com.darunkar.design_patterns;
+
+// Resolves a role to its permission bits; called once per proxy, never per request
+interface AuthorizationPolicy{
+    long permissionsFor(String role);
+}
@@ -0,0 +1,156 @@
+package com.darunkar.design_patterns;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// Decorator that turns single payments into provider batches. Callers enqueue on a lock-free queue and
+// get a future per payment; one flusher thread sends a batch once maxBatchSize payments are waiting or
+// the oldest has waited maxDelay, whichever comes first. Each drained batch is handed over one currency
+// at a time, so every payBatch call is a single provider call (providers batch per currency) and a
+// failure fails only the payments in that call, never ones another currency's call already charged.
+// Payments still queued when close() returns are failed rather than left pending.
+class BatchingPaymentProcessor implements PaymentProcessor, AutoCloseable{
+
+    private record PendingPayment(Money amount, CompletableFuture<Void> settled, long enqueuedAt){}
+
+    private final PaymentProcessor processor;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ConcurrentLinkedQueue<PendingPayment> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder payments = new LongAdder();
+
+    BatchingPaymentProcessor(PaymentProcessor processor, int maxBatchSize, long maxDelay, TimeUnit unit){
+        if(maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be >= 1");
+        this.processor = processor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.flusher = new Thread(this::flushLoop, "payment-batcher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    CompletableFuture<Void> submit(Money amount){
+        if(!running) throw new IllegalStateException("BatchingPaymentProcessor is closed");
+        PendingPayment payment = new PendingPayment(amount, new CompletableFuture<>(), System.nanoTime());
+        queue.offer(payment);
+        if(!running && !flusher.isAlive() && queue.remove(payment)){
+            // raced with close() after the final drain
+            payment.settled().completeExceptionally(new IllegalStateException("BatchingPaymentProcessor is closed"));
+            return payment.settled();
+        }
+        int size = queued.incrementAndGet();
+        if(size == 1 || size == maxBatchSize){
+            LockSupport.unpark(flusher); // start the delay clock, or the batch is full
+        }
+        return payment.settled();
+    }
+
+    // Blocking form of submit(); waits at most maxDelay plus one provider round trip
+    @Override
+    public void pay(Money amount){
+        await(submit(amount));
+    }
+
+    // Queued like single payments rather than handed straight to the provider, so a closed processor
+    // rejects it and provider batches stay within maxBatchSize
+    @Override
+    public void payBatch(List<Money> amounts){
+        List<CompletableFuture<Void>> settled = new ArrayList<>(amounts.size());
+        for(Money amount : amounts) settled.add(submit(amount));
+        for(CompletableFuture<Void> payment : settled) await(payment);
+    }
+
+    private static void await(CompletableFuture<Void> settled){
+        try{
+            settled.join();
+        }catch(CompletionException ex){
+            if(ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+
+    private void flushLoop(){
+        List<PendingPayment> batch = new ArrayList<>(maxBatchSize);
+        while(running || !queue.isEmpty()){
+            PendingPayment oldest = queue.peek();
+            if(oldest == null){
+                LockSupport.parkNanos(this, maxDelayNanos);
+                continue;
+            }
+            long deadline = oldest.enqueuedAt() + maxDelayNanos;
+            long remaining;
+            while(running && queued.get() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0){
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            for(PendingPayment next; batch.size() < maxBatchSize && (next = queue.poll()) != null; ){
+                batch.add(next);
+            }
+            queued.addAndGet(-batch.size());
+            settle(batch);
+            batch.clear();
+        }
+    }
+
+    private void settle(List<PendingPayment> batch){
+        Map<String, List<PendingPayment>> byCurrency = new LinkedHashMap<>();
+        for(PendingPayment payment : batch){
+            byCurrency.computeIfAbsent(payment.amount().currencyCode(), c -> new ArrayList<>()).add(payment);
+        }
+        for(List<PendingPayment> sameCurrency : byCurrency.values()) settleOneCurrency(sameCurrency);
+    }
+
+    private void settleOneCurrency(List<PendingPayment> batch){
+        List<Money> amounts = new ArrayList<>(batch.size());
+        for(PendingPayment payment : batch) amounts.add(payment.amount());
+        try{
+            processor.payBatch(amounts);
+            batches.increment();
+            payments.add(batch.size());
+            for(PendingPayment payment : batch) payment.settled().complete(null);
+        }catch(Throwable ex){
+            // anything, Errors included: the flusher must survive and no caller may wait forever
+            for(PendingPayment payment : batch) payment.settled().completeExceptionally(ex);
+        }
+    }
+
+    long batches(){
+        return batches.sum();
+    }
+
+    long payments(){
+        return payments.sum();
+    }
+
+    // Stops accepting payments and settles everything already queued. A submit() that slipped in after
+    // the flusher's last look at the queue is failed here, so no future is left pending.
+    @Override
+    public void close(){
+        running = false;
+        LockSupport.unpark(flusher);
+        try{
+            flusher.join();
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            return; // the flusher is still running and settles what is queued
+        }
+        for(PendingPayment payment; (payment = queue.poll()) != null; ){
+            queued.decrementAndGet();
+            payment.settled().completeExceptionally(new IllegalStateException("BatchingPaymentProcessor is closed"));
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.darunkar.design_patterns;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Bounded pool of SimpleConnections.
+// Borrow order: the connection this thread returned last -> any idle connection in the shared bag (CAS claim,
+// scanning from a random offset so threads don't all fight over the first entries) -> grow up to maxSize
+// -> wait until the timeout. Waiting is sliced polling, not a parked wait: each 10 ms slice polls the hand-off
+// queue, then the bag is rescanned. No locks on the fast path.
+class BoundedConnectionPool {
+    private static final Logger log = LoggerFactory.getLogger(BoundedConnectionPool.class);
+
+    private static final int IDLE = 0;
+    private static final int IN_USE = 1;
+    private static final int REMOVED = 2;
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long NOT_BORROWED = Long.MIN_VALUE;
+
+    static final class Entry {
+        final SimpleConnection connection = new SimpleConnection();
+        final AtomicInteger state;
+        volatile long lastReturnedNanos = System.nanoTime();
+        // A claim flips state to IN_USE before lease() stamps borrowedAtNanos, so an IN_USE entry can
+        // still show NOT_BORROWED; release() clears the stamp before the entry goes back to IDLE
+        volatile long borrowedAtNanos = NOT_BORROWED;
+        volatile long leakReportedFor = NOT_BORROWED; // borrowedAtNanos of the borrow already reported
+
+        Entry(int initialState) {
+            this.state = new AtomicInteger(initialState);
+        }
+    }
+
+    private final String name;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+
+    // copy-on-write: only growth/eviction replace the array, borrowers read it once and CAS
+    private volatile Entry[] bag = new Entry[0];
+    private final ThreadLocal<Entry> lastReturned = new ThreadLocal<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final SynchronousQueue<Entry> handoff = new SynchronousQueue<>(true);
+    private final ScheduledExecutorService housekeeper;
+
+    private final List<PoolMetricsTracker> trackers = new ArrayList<>(); // guarded by this
+    private volatile PoolMetricsTracker metricsTracker = PoolMetricsTracker.NOOP; // all of trackers
+    private volatile long leakThresholdNanos; // 0 = leak detection off
+    private final long[] initialCreationNanos; // the minSize connections opened before any tracker was installed
+
+    BoundedConnectionPool(String name, int minSize, int maxSize, long idleTimeout, TimeUnit unit) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.name = name;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = unit.toNanos(idleTimeout);
+
+        initialCreationNanos = new long[minSize];
+        for (int i = 0; i < minSize; i++) {
+            long start = System.nanoTime();
+            addEntry(new Entry(IDLE));
+            initialCreationNanos[i] = System.nanoTime() - start;
+            size.incrementAndGet();
+        }
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-housekeeper-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1, Math.min(idleTimeoutNanos / 2, TimeUnit.SECONDS.toNanos(1)));
+        housekeeper.scheduleAtFixedRate(this::housekeep, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    // Trackers add up (e.g. one per MeterRegistry), each one first gets the creation times of the
+    // connections opened by the constructor
+    synchronized void addMetricsTracker(PoolMetricsTracker tracker) {
+        if (tracker == null) throw new IllegalArgumentException("tracker is required");
+        for (long nanos : initialCreationNanos) tracker.recordConnectionCreation(nanos);
+        trackers.add(tracker);
+        metricsTracker = trackers.size() == 1 ? tracker : PoolMetricsTracker.composite(trackers);
+    }
+
+    void setLeakDetectionThreshold(long threshold, TimeUnit unit) {
+        this.leakThresholdNanos = unit.toNanos(threshold);
+    }
+
+    public PooledConnection borrow(long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(timeout);
+
+        Entry entry = tryClaim();
+        if (entry != null) return lease(entry, start);
+
+        waiters.incrementAndGet();
+        try {
+            while (true) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    metricsTracker.recordBorrowWait(System.nanoTime() - start);
+                    throw new IllegalStateException("Timed out waiting for a connection from pool " + name);
+                }
+                // short slices so a hand-off that raced with our registration is picked up by the rescan
+                Entry handedOff = handoff.poll(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                if (handedOff != null && handedOff.state.compareAndSet(IDLE, IN_USE)) {
+                    return lease(handedOff, start);
+                }
+                entry = tryClaim();
+                if (entry != null) return lease(entry, start);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a connection from pool " + name, ex);
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private PooledConnection lease(Entry entry, long borrowStartNanos) {
+        long now = System.nanoTime();
+        entry.borrowedAtNanos = now;
+        metricsTracker.recordBorrowWait(now - borrowStartNanos);
+        return new PooledConnection(this, entry);
+    }
+
+    void release(Entry entry) {
+        entry.lastReturnedNanos = System.nanoTime();
+        entry.borrowedAtNanos = NOT_BORROWED;
+        entry.state.set(IDLE);
+        lastReturned.set(entry);
+        if (waiters.get() > 0) {
+            handoff.offer(entry);
+        }
+    }
+
+    private Entry tryClaim() {
+        Entry affine = lastReturned.get();
+        if (affine != null && affine.state.compareAndSet(IDLE, IN_USE)) {
+            return affine;
+        }
+        Entry[] entries = bag;
+        int start = entries.length > 1 ? ThreadLocalRandom.current().nextInt(entries.length) : 0;
+        for (int i = 0; i < entries.length; i++) {
+            Entry candidate = entries[(start + i) % entries.length];
+            if (candidate.state.compareAndSet(IDLE, IN_USE)) {
+                return candidate;
+            }
+        }
+        return tryGrow();
+    }
+
+    private Entry tryGrow() {
+        while (true) {
+            int current = size.get();
+            if (current >= maxSize) return null;
+            if (size.compareAndSet(current, current + 1)) {
+                Entry created = createEntry(IN_USE);
+                addEntry(created);
+                return created;
+            }
+        }
+    }
+
+    private synchronized void addEntry(Entry entry) {
+        Entry[] grown = Arrays.copyOf(bag, bag.length + 1);
+        grown[bag.length] = entry;
+        bag = grown;
+    }
+
+    private synchronized void removeEntry(Entry entry) {
+        Entry[] entries = bag;
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i] == entry) {
+                Entry[] shrunk = Arrays.copyOf(entries, entries.length - 1);
+                System.arraycopy(entries, i + 1, shrunk, i, entries.length - i - 1);
+                bag = shrunk;
+                return;
+            }
+        }
+    }
+
+    private Entry createEntry(int initialState) {
+        long start = System.nanoTime();
+        Entry entry = new Entry(initialState);
+        metricsTracker.recordConnectionCreation(System.nanoTime() - start);
+        return entry;
+    }
+
+    private void housekeep() {
+        evictIdle();
+        detectLeaks();
+    }
+
+    // Reports (once per borrow) connections held longer than the leak threshold.
+    // State is read before the stamp: a claim whose stamp isn't written yet is skipped, never measured
+    // against the previous borrow's time.
+    void detectLeaks() {
+        long threshold = leakThresholdNanos;
+        if (threshold <= 0) return;
+        long now = System.nanoTime();
+        for (Entry entry : bag) {
+            if (entry.state.get() != IN_USE) continue;
+            long borrowedAt = entry.borrowedAtNanos;
+            if (borrowedAt == NOT_BORROWED || entry.leakReportedFor == borrowedAt) continue;
+            long held = now - borrowedAt;
+            if (held > threshold) {
+                entry.leakReportedFor = borrowedAt;
+                metricsTracker.recordLeak(held);
+                log.warn("Possible connection leak in pool {}: {} held for {} ms",
+                        name, entry.connection, TimeUnit.NANOSECONDS.toMillis(held));
+            }
+        }
+    }
+
+    // Shrinks back towards minSize by closing connections idle for longer than idleTimeout
+    void evictIdle() {
+        long now = System.nanoTime();
+        for (Entry entry : bag) {
+            if (size.get() <= minSize) return;
+            if (now - entry.lastReturnedNanos > idleTimeoutNanos && entry.state.compareAndSet(IDLE, REMOVED)) {
+                removeEntry(entry);
+                size.decrementAndGet();
+            }
+        }
+    }
+
+    public String getName() { return name; }
+
+    public int getMaxSize() { return maxSize; }
+
+    public int getTotalConnections() { return size.get(); }
+
+    public int getActiveConnections() { return countInState(IN_USE); }
+
+    public int getIdleConnections() { return countInState(IDLE); }
+
+    public int getPendingBorrowers() { return waiters.get(); }
+
+    private int countInState(int state) {
+        int count = 0;
+        for (Entry entry : bag) {
+            if (entry.state.get() == state) count++;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundedConnectionPool{" + name + ", total=" + getTotalConnections() + ", active=" + getActiveConnections()
+                + ", idle=" + getIdleConnections() + ", pending=" + getPendingBorrowers() + "}";
+    }
+}
@@ -1,30 +1,209 @@
 package com.darunkar.design_patterns;
 
-//Implementor - gateway bridge
-interface PaymentGateway{
-    void processPayment(double amount);
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Common HTTP plumbing for the gateways: HttpClient.sendAsync runs on the client's NIO selector,
+// so thousands of payments can be in flight on a handful of threads. Errors and timeouts become
+// failed results instead of exceptional futures, so callers only ever look at PaymentResult.
+abstract class HttpPaymentGateway implements PaymentGateway{
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final HttpClient httpClient;
+    private final URI endpoint;
+    private final URI voidEndpoint;
+    private final String name;
+
+    protected HttpPaymentGateway(HttpClient httpClient, URI endpoint, String name) {
+        this.httpClient = httpClient;
+        this.endpoint = endpoint;
+        this.voidEndpoint = URI.create(endpoint + "/void");
+        this.name = name;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> processPayment(Money amount) {
+        return processPayment(amount, null);
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> processPayment(Money amount, String idempotencyKey) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(endpoint)
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("amount=" + amount.minorUnits() + "&currency=" + amount.currencyCode()));
+        if(idempotencyKey != null) request.header("Idempotency-Key", idempotencyKey);
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> toResult(amount, response))
+                .exceptionally(ex -> {
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    // refused connections never carried the request; anything later (timeouts, resets) may have
+                    return cause instanceof ConnectException
+                            ? PaymentResult.unreachable(name, amount, "gateway unreachable: " + cause)
+                            : PaymentResult.gatewayError(name, amount, "no answer from gateway: " + cause);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> voidPayment(String transactionId) {
+        return postVoid("transactionId=" + transactionId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> cancelPayment(String idempotencyKey) {
+        return postVoid("idempotencyKey=" + idempotencyKey);
+    }
+
+    private CompletableFuture<Boolean> postVoid(String form) {
+        HttpRequest request = HttpRequest.newBuilder(voidEndpoint)
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> response.statusCode() == 200)
+                .exceptionally(ex -> false);
+    }
+
+    // Stub protocol: 200 "approved:<transactionId>"; 5xx is a gateway error, any other status a decline
+    private PaymentResult toResult(Money amount, HttpResponse<String> response){
+        String body = response.body();
+        if(response.statusCode() == 200 && body.startsWith("approved:")){
+            return PaymentResult.approved(name, amount, body.substring("approved:".length()));
+        }
+        String message = "HTTP " + response.statusCode() + ": " + body;
+        return response.statusCode() >= 500
+                ? PaymentResult.gatewayError(name, amount, message)
+                : PaymentResult.declined(name, amount, message);
+    }
 }
 
 //concrete classes for gateway
-class StripeGateway implements PaymentGateway{
+class StripeGateway extends HttpPaymentGateway{
 
-    @Override
-    public void processPayment(double amount) {
-        System.out.println("Processing payment of ₹" + amount + " via Stripe gateway");
+    public StripeGateway(HttpClient httpClient, URI baseUri) {
+        super(httpClient, baseUri.resolve("/stripe/charges"), "Stripe");
+    }
+}
+
+class RazorPayGateway extends HttpPaymentGateway{
+
+    public RazorPayGateway(HttpClient httpClient, URI baseUri) {
+        super(httpClient, baseUri.resolve("/razorpay/payments"), "RazorPay");
     }
 }
 
-class RazorPayGateway implements PaymentGateway{
+// Local stand-in for the Stripe and RazorPay APIs. Answers after a simulated network delay without
+// holding a server thread: the exchange is completed later from a scheduler. degrade() makes it slow
+// and flaky (503s) to exercise routing. Payments carrying an Idempotency-Key are remembered, so a
+// repeat gets the first answer and a void by key cancels whatever was charged under it.
+class StubPaymentServer implements AutoCloseable{
+
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newFixedThreadPool(2);
+    private final ScheduledExecutorService responder = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicLong transactionIds = new AtomicLong();
+    private final Map<String, String> repliesByKey = new ConcurrentHashMap<>();
+    private volatile long delayMillis;
+    private volatile double failureRate;
+
+    StubPaymentServer(long delayMillis) throws IOException {
+        this.delayMillis = delayMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/stripe/charges", exchange -> handle(exchange, "ch_"));
+        server.createContext("/razorpay/payments", exchange -> handle(exchange, "pay_"));
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    URI baseUri(){
+        return URI.create("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort());
+    }
+
+    void degrade(long delayMillis, double failureRate){
+        this.delayMillis = delayMillis;
+        this.failureRate = failureRate;
+    }
+
+    private void handle(HttpExchange exchange, String prefix) throws IOException {
+        String body;
+        try(InputStream in = exchange.getRequestBody()){
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        if(ThreadLocalRandom.current().nextDouble() < failureRate){
+            responder.schedule(() -> respond(exchange, 503, "unavailable"), delayMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if(exchange.getRequestURI().getPath().endsWith("/void")){
+            if(body.startsWith("idempotencyKey=")) repliesByKey.remove(body.substring("idempotencyKey=".length()));
+            responder.schedule(() -> respond(exchange, 200, "voided"), delayMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        long amount; // minor units
+        try{
+            int start = body.indexOf("amount=") + "amount=".length();
+            int end = body.indexOf('&', start);
+            amount = Long.parseLong(body.substring(start, end < 0 ? body.length() : end));
+        }catch(RuntimeException ex){
+            amount = -1;
+        }
+        int status = amount > 0 ? 200 : 402;
+        String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        String reply = amount <= 0 ? "invalid amount"
+                : key == null ? "approved:" + prefix + transactionIds.incrementAndGet()
+                : repliesByKey.computeIfAbsent(key, k -> "approved:" + prefix + transactionIds.incrementAndGet());
+        responder.schedule(() -> respond(exchange, status, reply), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String reply){
+        byte[] bytes = reply.getBytes(StandardCharsets.UTF_8);
+        try(OutputStream out = exchange.getResponseBody()){
+            exchange.sendResponseHeaders(status, bytes.length);
+            out.write(bytes);
+        }catch(IOException ex){
+            // client went away
+        }
+    }
+
     @Override
-    public void processPayment(double amount) {
-        System.out.println("Processing payment of ₹" + amount + " via RazorPay gateway");
+    public void close(){
+        server.stop(0);
+        responder.shutdownNow();
+        handlers.shutdownNow();
     }
 }
 
 
 //Abstraction - payment method side of bridge
 abstract class PaymentT{
-   abstract void pay(double amount);
+   abstract CompletableFuture<PaymentResult> pay(Money amount);
 }
 
 //concrete payment methods
@@ -38,8 +217,8 @@ class UpiPayment extends PaymentT{
     }
 
     @Override
-    void pay(double amount) {
-        paymentGateway.processPayment(amount);
+    CompletableFuture<PaymentResult> pay(Money amount) {
+        return paymentGateway.processPayment(amount);
     }
 }
 
@@ -51,19 +230,63 @@ class CCPayment extends PaymentT{
     }
 
     @Override
-    void pay(double amount) {
-        paymentGateway.processPayment(amount);
+    CompletableFuture<PaymentResult> pay(Money amount) {
+        return paymentGateway.processPayment(amount);
     }
 }
 
 public class BridgePaymentDemo {
 
-    public static void main(String[] args) {
-        PaymentT creditWithStripe = new CCPayment(new StripeGateway());
-        creditWithStripe.pay(5000);
+    private static void runRoutedBatch(String label, PaymentT payment){
+        long start = System.nanoTime();
+        List<CompletableFuture<Long>> latencies = new ArrayList<>();
+        for(int i = 1; i <= 500; i++){
+            long sent = System.nanoTime();
+            latencies.add(payment.pay(Money.ofMajor(i, "INR")).thenApply(result -> result.success() ? System.nanoTime() - sent : -1));
+        }
+        long[] sorted = latencies.stream().mapToLong(CompletableFuture::join).sorted().toArray();
+        long failed = Arrays.stream(sorted).filter(latency -> latency < 0).count();
+        System.out.println(label + ": " + (500 - failed) + "/500 approved in " + (System.nanoTime() - start) / 1_000_000
+                + " ms, p99 " + sorted[(int) (sorted.length * 0.99)] / 1_000_000 + " ms");
+    }
+
+    public static void main(String[] args) throws IOException {
+        ExecutorService clientThreads = Executors.newFixedThreadPool(2);
+        HttpClient httpClient = HttpClient.newBuilder().executor(clientThreads).build();
+
+        try(StubPaymentServer stub = new StubPaymentServer(50)){
+            PaymentT creditWithStripe = new CCPayment(new StripeGateway(httpClient, stub.baseUri()));
+            System.out.println(creditWithStripe.pay(Money.ofMajor(5000, "INR")).join());
+
+            PaymentT upiWithRazorPay = new UpiPayment(new RazorPayGateway(httpClient, stub.baseUri()));
+            System.out.println(upiWithRazorPay.pay(Money.of("7000.50", "INR")).join());
+
+            // 2000 payments in flight at once on two client threads
+            long start = System.nanoTime();
+            List<CompletableFuture<PaymentResult>> payments = new ArrayList<>();
+            for(int i = 1; i <= 2000; i++){
+                payments.add((i % 2 == 0 ? creditWithStripe : upiWithRazorPay).pay(Money.ofMajor(i, "INR")));
+            }
+            CompletableFuture.allOf(payments.toArray(CompletableFuture[]::new)).join();
+            long approved = payments.stream().filter(p -> p.join().success()).count();
+            System.out.println(approved + "/2000 payments approved in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
 
-        PaymentT upiWithRazorPay = new UpiPayment(new RazorPayGateway());
-        upiWithRazorPay.pay(7000);
+        // Routing across two providers, one of which degrades halfway through
+        try(StubPaymentServer stripeApi = new StubPaymentServer(20); StubPaymentServer razorPayApi = new StubPaymentServer(20);
+            RoutingGateway router = new RoutingGateway(Map.of(
+                    "Stripe", new StripeGateway(httpClient, stripeApi.baseUri()),
+                    "RazorPay", new RazorPayGateway(httpClient, razorPayApi.baseUri())), true)){
+            PaymentT routedCard = new CCPayment(router);
 
+            runRoutedBatch("both healthy", routedCard);
+            razorPayApi.degrade(500, 0.3);
+            runRoutedBatch("RazorPay degraded", routedCard);
+            router.stats().forEach(System.out::println);
+            System.out.println("failovers=" + router.failovers() + " hedges=" + router.hedges() + " voided=" + router.voids()
+                    + " failed voids=" + router.failedVoids());
+        }finally{
+            clientThreads.shutdown();
+        }
     }
 }
@@ -0,0 +1,262 @@
+package com.darunkar.design_patterns;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caching proxy in front of the product lookup (the DB call). Entries live for ttl; once an entry is
+// older than refreshAfter, a hit still returns the cached value but reloads it in the background, so
+// hot products never expire under load. Concurrent misses for one productId share a single backend call.
+// A null answer (unknown product) goes back to the callers waiting for it but is never cached.
+// Bounded with CLOCK (approximate LRU, like TextStyleFactory): reads set an entry's referenced bit and
+// past maxEntries a hand walking the map evicts the first expired or unreferenced entry, so every insert
+// pays amortised O(1) for eviction instead of a sort of the whole cache.
+// Background reloads run on a small dedicated pool unless an executor is passed in, so they never queue
+// behind (or starve) unrelated work in the common pool.
+class CachingProductServiceProxy implements ProductService{
+
+    private final ProductService productService;
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private Iterator<Map.Entry<String, CacheEntry>> clockHand; // only touched by the thread holding sweeping
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final Executor refreshExecutor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingProductServiceProxy(ProductService productService, int maxEntries, long ttl, long refreshAfter, TimeUnit unit) {
+        this(productService, maxEntries, ttl, refreshAfter, unit, RefreshPoolHolder.INSTANCE);
+    }
+
+    // Shared by every proxy built without an executor; a full queue rejects, and the entry is refreshed later
+    private static final class RefreshPoolHolder{
+        static final ExecutorService INSTANCE = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1_000), runnable -> {
+                    Thread thread = new Thread(runnable, "product-cache-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        static{
+            ((ThreadPoolExecutor) INSTANCE).allowCoreThreadTimeOut(true);
+        }
+    }
+
+    public CachingProductServiceProxy(ProductService productService, int maxEntries, long ttl, long refreshAfter,
+                                      TimeUnit unit, Executor refreshExecutor) {
+        if(maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+        if(refreshAfter > ttl) throw new IllegalArgumentException("refreshAfter must not exceed ttl");
+        this.productService = productService;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.refreshAfterNanos = unit.toNanos(refreshAfter);
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public String getProductDetails(String productId) {
+        while(true){
+            long now = System.nanoTime();
+            CacheEntry entry = cache.get(productId);
+            if(entry != null){
+                if(entry.isExpired(now, ttlNanos)){
+                    cache.remove(productId, entry);
+                    continue;
+                }
+                hits.increment(); // includes callers joining an in-flight load
+                if(!entry.referenced) entry.referenced = true; // skip the write when already set
+                if(entry.value.isDone() && now - entry.loadedAt > refreshAfterNanos){
+                    refreshAhead(productId, entry);
+                }
+                return await(entry.value);
+            }
+
+            CacheEntry fresh = new CacheEntry(new CompletableFuture<>(), now);
+            if(cache.putIfAbsent(productId, fresh) == null){
+                misses.increment();
+                evictIfFull();
+                try{
+                    String details = productService.getProductDetails(productId);
+                    if(details == null) cache.remove(productId, fresh);
+                    fresh.value.complete(details);
+                }catch(Throwable ex){
+                    // failures are not cached, the next call retries; callers sharing the load see the failure
+                    cache.remove(productId, fresh);
+                    fresh.value.completeExceptionally(ex);
+                }
+                return await(fresh.value);
+            }
+        }
+    }
+
+    // Hits (and loads already in flight) are served from the cache; the misses this call claims go to
+    // the backend as one bulk request. If anything fails before every claimed entry is completed (a bad id
+    // mid-claim, the bulk load, eviction), all of them are failed and removed, so no caller waits forever.
+    @Override
+    public Map<String, String> getProductDetails(Collection<String> productIds) {
+        Map<String, CompletableFuture<String>> values = new LinkedHashMap<>();
+        Map<String, CacheEntry> claimed = new LinkedHashMap<>();
+        try{
+            claim(productIds, values, claimed);
+            if(!claimed.isEmpty()){
+                evictIfFull();
+                Map<String, String> loaded = productService.getProductDetails(claimed.keySet());
+                claimed.forEach((productId, entry) -> {
+                    String details = loaded.get(productId);
+                    if(details == null) cache.remove(productId, entry); // left out of the answer: not cached, like a null
+                    entry.value.complete(details);
+                });
+            }
+        }catch(Throwable ex){
+            claimed.forEach((productId, entry) -> {
+                cache.remove(productId, entry);
+                entry.value.completeExceptionally(ex);
+            });
+            throw ex;
+        }
+
+        Map<String, String> details = new LinkedHashMap<>();
+        values.forEach((productId, value) -> details.put(productId, await(value)));
+        return details;
+    }
+
+    private void claim(Collection<String> productIds, Map<String, CompletableFuture<String>> values,
+                       Map<String, CacheEntry> claimed){
+        for(String productId : productIds){
+            while(!values.containsKey(productId)){
+                long now = System.nanoTime();
+                CacheEntry entry = cache.get(productId);
+                if(entry != null){
+                    if(entry.isExpired(now, ttlNanos)){
+                        cache.remove(productId, entry);
+                        continue;
+                    }
+                    hits.increment();
+                    if(!entry.referenced) entry.referenced = true;
+                    if(entry.value.isDone() && now - entry.loadedAt > refreshAfterNanos){
+                        refreshAhead(productId, entry);
+                    }
+                    values.put(productId, entry.value);
+                }else{
+                    CacheEntry fresh = new CacheEntry(new CompletableFuture<>(), now);
+                    if(cache.putIfAbsent(productId, fresh) == null){
+                        misses.increment();
+                        claimed.put(productId, fresh);
+                        values.put(productId, fresh.value);
+                    }
+                }
+            }
+        }
+    }
+
+    // One background reload per entry; until it lands (or if it fails) the current value keeps being served
+    private void refreshAhead(String productId, CacheEntry entry){
+        if(!entry.refreshing.compareAndSet(false, true)) return;
+        try{
+            refreshExecutor.execute(() -> {
+                try{
+                    String details = productService.getProductDetails(productId);
+                    if(details == null){
+                        cache.remove(productId, entry); // the product is gone; don't keep serving the old value
+                        return;
+                    }
+                    CacheEntry reloaded = new CacheEntry(CompletableFuture.completedFuture(details), System.nanoTime());
+                    reloaded.referenced = entry.referenced;
+                    cache.replace(productId, entry, reloaded);
+                    refreshes.increment();
+                }catch(Throwable ex){
+                    entry.refreshing.set(false);
+                }
+            });
+        }catch(RejectedExecutionException ex){
+            entry.refreshing.set(false);
+        }
+    }
+
+    static String await(CompletableFuture<String> value){
+        try{
+            return value.join();
+        }catch(CompletionException ex){
+            if(ex.getCause() instanceof RuntimeException cause) throw cause;
+            if(ex.getCause() instanceof Error cause) throw cause;
+            throw ex;
+        }
+    }
+
+    // CLOCK: the hand gives referenced entries a second chance (clearing the bit) and evicts expired or
+    // unreferenced ones until the cache is back at maxEntries. Two passes clear every bit, which bounds
+    // the walk when only in-flight loads (never evicted) are left. One sweeper at a time; the map's
+    // weakly consistent iterator lets the hand carry on across concurrent inserts and removals.
+    private void evictIfFull(){
+        if(cache.size() <= maxEntries || !sweeping.compareAndSet(false, true)) return;
+        try{
+            long now = System.nanoTime();
+            int steps = 2 * cache.size() + 1;
+            while(cache.size() > maxEntries && steps-- > 0){
+                if(clockHand == null || !clockHand.hasNext()){
+                    clockHand = cache.entrySet().iterator();
+                    if(!clockHand.hasNext()) return;
+                }
+                Map.Entry<String, CacheEntry> next = clockHand.next();
+                CacheEntry entry = next.getValue();
+                if(!entry.value.isDone()) continue;
+                if(entry.referenced && !entry.isExpired(now, ttlNanos)){
+                    entry.referenced = false;
+                    continue;
+                }
+                if(cache.remove(next.getKey(), entry)) evictions.increment();
+            }
+        }finally{
+            sweeping.set(false);
+        }
+    }
+
+    public void invalidate(String productId){
+        cache.remove(productId);
+    }
+
+    public Stats stats(){
+        return new Stats(hits.sum(), misses.sum(), refreshes.sum(), evictions.sum(), cache.size());
+    }
+
+    public record Stats(long hits, long misses, long refreshes, long evictions, int size){
+        public double hitRate(){
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private static final class CacheEntry{
+        final CompletableFuture<String> value;
+        final long loadedAt;
+        final AtomicBoolean refreshing = new AtomicBoolean();
+        volatile boolean referenced; // CLOCK bit
+
+        CacheEntry(CompletableFuture<String> value, long loadedAt){
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+        // in-flight loads never expire, otherwise a slow DB call could be started twice
+        boolean isExpired(long now, long ttlNanos){
+            return value.isDone() && now - loadedAt > ttlNanos;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package com.darunkar.design_patterns;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+// Struct-of-arrays store for very large trees: a node is just an int index into parallel arrays
+// (parent, first child, next sibling, size, file count, name offset) plus one bit in the folder set,
+// ~28 bytes per node instead of a FileLeaf/FolderComposite object with its String and ArrayList.
+// Names are UTF-8 in one shared byte arena, deduplicated, so repeated names cost nothing extra.
+// FileComponent views (Node) are created on demand and hold nothing but the index.
+// Children are linked newest first; copyOf() keeps the source order.
+class CompactFileTree {
+
+    static final int NONE = -1;
+    private static final int ROOT = 0;
+
+    private int[] parent;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private long[] size;       // file size, or the cached subtree total for folders
+    private int[] fileCount;   // 1 for files, files in the subtree for folders
+    private int[] nameOffset;
+    private final BitSet folders = new BitSet();
+    private int nodeCount;
+
+    // arena entries are [length: 2 bytes][UTF-8 bytes]
+    private byte[] names = new byte[256];
+    private int namesLength;
+    private int[] nameTable = new int[64]; // open addressing over arena offsets, NONE = empty
+    private int distinctNames;
+
+    CompactFileTree(String rootName) {
+        this(rootName, 16);
+    }
+
+    CompactFileTree(String rootName, int initialCapacity) {
+        int capacity = Math.max(2, initialCapacity);
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        size = new long[capacity];
+        fileCount = new int[capacity];
+        nameOffset = new int[capacity];
+        Arrays.fill(nameTable, NONE);
+        newNode(NONE, rootName, true, 0);
+    }
+
+    // Copies any composite tree, preserving child order (children are prepended, so walk them backwards)
+    static CompactFileTree copyOf(FileComponent source) {
+        CompactFileTree tree = new CompactFileTree(source.getName(), 1024);
+        Deque<FileComponent> sources = new ArrayDeque<>();
+        Deque<Integer> targets = new ArrayDeque<>();
+        sources.push(source);
+        targets.push(ROOT);
+        while (!sources.isEmpty()) {
+            List<FileComponent> children = sources.pop().getChildren();
+            int target = targets.pop();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                FileComponent child = children.get(i);
+                if (!child.isFolder()) {
+                    tree.addFile(target, child.getName(), child.getSize());
+                } else {
+                    sources.push(child);
+                    targets.push(tree.addFolder(target, child.getName()));
+                }
+            }
+        }
+        return tree;
+    }
+
+    int root() {
+        return ROOT;
+    }
+
+    int addFolder(int parentNode, String name) {
+        checkFolder(parentNode);
+        return newNode(parentNode, name, true, 0);
+    }
+
+    int addFile(int parentNode, String name, long bytes) {
+        checkFolder(parentNode);
+        if (bytes < 0) throw new IllegalArgumentException("Negative size: " + bytes);
+        int node = newNode(parentNode, name, false, bytes);
+        propagate(parentNode, bytes, 1);
+        return node;
+    }
+
+    // Unlinks the node from its parent; the subtree becomes detached (its slots are not reused)
+    boolean remove(int node) {
+        checkNode(node);
+        int p = parent[node];
+        if (p == NONE) return false;
+
+        if (firstChild[p] == node) {
+            firstChild[p] = nextSibling[node];
+        } else {
+            int prev = firstChild[p];
+            while (nextSibling[prev] != node) prev = nextSibling[prev];
+            nextSibling[prev] = nextSibling[node];
+        }
+        nextSibling[node] = NONE;
+        parent[node] = NONE;
+        propagate(p, -size[node], -fileCount[node]);
+        return true;
+    }
+
+    private int newNode(int parentNode, String name, boolean folder, long bytes) {
+        if (nodeCount == parent.length) grow();
+        int node = nodeCount++;
+        parent[node] = parentNode;
+        firstChild[node] = NONE;
+        size[node] = bytes;
+        fileCount[node] = folder ? 0 : 1;
+        nameOffset[node] = intern(name);
+        if (folder) folders.set(node);
+        if (parentNode != NONE) {
+            nextSibling[node] = firstChild[parentNode];
+            firstChild[parentNode] = node;
+        } else {
+            nextSibling[node] = NONE;
+        }
+        return node;
+    }
+
+    private void propagate(int folder, long sizeDelta, int fileDelta) {
+        for (int p = folder; p != NONE; p = parent[p]) {
+            size[p] += sizeDelta;
+            fileCount[p] += fileDelta;
+        }
+    }
+
+    private void grow() {
+        int capacity = Math.max(nodeCount + 1, parent.length + (parent.length >> 1));
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        size = Arrays.copyOf(size, capacity);
+        fileCount = Arrays.copyOf(fileCount, capacity);
+        nameOffset = Arrays.copyOf(nameOffset, capacity);
+    }
+
+    // ---- name arena ----
+
+    private int intern(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new IllegalArgumentException("Name too long: " + bytes.length + " bytes");
+
+        int mask = nameTable.length - 1;
+        for (int slot = hash(bytes, 0, bytes.length) & mask; ; slot = (slot + 1) & mask) {
+            int offset = nameTable[slot];
+            if (offset == NONE) break;
+            if (nameEquals(offset, bytes)) return offset;
+        }
+
+        if (namesLength + 2 + bytes.length > names.length) {
+            names = Arrays.copyOf(names, Math.max(namesLength + 2 + bytes.length, names.length * 2));
+        }
+        int offset = namesLength;
+        names[offset] = (byte) (bytes.length >>> 8);
+        names[offset + 1] = (byte) bytes.length;
+        System.arraycopy(bytes, 0, names, offset + 2, bytes.length);
+        namesLength += 2 + bytes.length;
+
+        if (++distinctNames * 2 > nameTable.length) {
+            rehash(nameTable.length * 2);
+        }
+        insert(offset);
+        return offset;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = nameTable;
+        nameTable = new int[capacity];
+        Arrays.fill(nameTable, NONE);
+        for (int offset : old) {
+            if (offset != NONE) insert(offset);
+        }
+    }
+
+    private void insert(int offset) {
+        int mask = nameTable.length - 1;
+        int slot = hash(names, offset + 2, nameLength(offset)) & mask;
+        while (nameTable[slot] != NONE) slot = (slot + 1) & mask;
+        nameTable[slot] = offset;
+    }
+
+    private static int hash(byte[] bytes, int from, int length) {
+        int h = 1;
+        for (int i = from; i < from + length; i++) h = 31 * h + bytes[i];
+        return h ^ (h >>> 16);
+    }
+
+    private int nameLength(int offset) {
+        return ((names[offset] & 0xFF) << 8) | (names[offset + 1] & 0xFF);
+    }
+
+    private boolean nameEquals(int offset, byte[] bytes) {
+        return Arrays.equals(names, offset + 2, offset + 2 + nameLength(offset), bytes, 0, bytes.length);
+    }
+
+    // ---- accessors ----
+
+    String name(int node) {
+        checkNode(node);
+        int offset = nameOffset[node];
+        return new String(names, offset + 2, nameLength(offset), StandardCharsets.UTF_8);
+    }
+
+    long size(int node) {
+        checkNode(node);
+        return size[node];
+    }
+
+    int fileCount(int node) {
+        checkNode(node);
+        return fileCount[node];
+    }
+
+    boolean isFolder(int node) {
+        checkNode(node);
+        return folders.get(node);
+    }
+
+    int parent(int node) {
+        checkNode(node);
+        return parent[node];
+    }
+
+    int firstChild(int node) {
+        checkNode(node);
+        return firstChild[node];
+    }
+
+    int nextSibling(int node) {
+        checkNode(node);
+        return nextSibling[node];
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    // First node named name in the subtree of from (pre-order), or NONE. Compares arena bytes, no Strings built.
+    int find(int from, String name) {
+        checkNode(from);
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int mask = nameTable.length - 1;
+        int target = NONE;
+        for (int slot = hash(bytes, 0, bytes.length) & mask; nameTable[slot] != NONE; slot = (slot + 1) & mask) {
+            if (nameEquals(nameTable[slot], bytes)) {
+                target = nameTable[slot];
+                break;
+            }
+        }
+        if (target == NONE) return NONE; // no node anywhere has this name
+
+        // interned names compare by offset; walk without a stack via the sibling/parent links
+        int node = from;
+        while (true) {
+            if (nameOffset[node] == target) return node;
+            if (firstChild[node] != NONE) {
+                node = firstChild[node];
+                continue;
+            }
+            while (node != from && nextSibling[node] == NONE) node = parent[node];
+            if (node == from) return NONE;
+            node = nextSibling[node];
+        }
+    }
+
+    private void checkNode(int node) {
+        if (node < 0 || node >= nodeCount) throw new IllegalArgumentException("No such node: " + node);
+    }
+
+    private void checkFolder(int node) {
+        if (!isFolder(node)) throw new IllegalArgumentException("Not a folder: " + name(node));
+    }
+
+    // Drops the growth slack once the tree is built
+    void trimToSize() {
+        parent = Arrays.copyOf(parent, nodeCount);
+        firstChild = Arrays.copyOf(firstChild, nodeCount);
+        nextSibling = Arrays.copyOf(nextSibling, nodeCount);
+        size = Arrays.copyOf(size, nodeCount);
+        fileCount = Arrays.copyOf(fileCount, nodeCount);
+        nameOffset = Arrays.copyOf(nameOffset, nodeCount);
+        names = Arrays.copyOf(names, namesLength);
+    }
+
+    // Array payloads only, like StyledDocument.estimatedHeapBytes()
+    long estimatedHeapBytes() {
+        return 4L * (parent.length + firstChild.length + nextSibling.length + fileCount.length + nameOffset.length)
+                + 8L * size.length + folders.size() / 8 + names.length + 4L * nameTable.length;
+    }
+
+    // ---- FileComponent views ----
+
+    FileComponent view(int node) {
+        checkNode(node);
+        return new Node(node);
+    }
+
+    FileComponent rootView() {
+        return new Node(ROOT);
+    }
+
+    // Flyweight view: the index is the only state, everything else is read from the arrays
+    final class Node implements FileComponent {
+        private final int index;
+
+        private Node(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void showDetails(String indent) {
+            TreeRenderer.print(this, indent);
+        }
+
+        @Override
+        public long getSize() {
+            return size[index];
+        }
+
+        @Override
+        public FileComponent search(String name) {
+            int found = find(index, name);
+            return found != NONE ? new Node(found) : null;
+        }
+
+        @Override
+        public int countFiles() {
+            return fileCount[index];
+        }
+
+        @Override
+        public boolean delete(String name) {
+            if (!folders.get(index)) return false;
+            for (int child = firstChild[index]; child != NONE; child = nextSibling[child]) {
+                int found = find(child, name);
+                if (found != NONE) {
+                    remove(found);
+                    System.out.println((folders.get(found) ? "Folder" : "File") + " is deleted ! " + name);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public boolean isFolder() {
+            return folders.get(index);
+        }
+
+        @Override
+        public String getName() {
+            return name(index);
+        }
+
+        @Override
+        public FileComponent getParent() {
+            return parent[index] != NONE ? new Node(parent[index]) : null;
+        }
+
+        @Override
+        public List<FileComponent> getChildren() {
+            if (firstChild[index] == NONE) return List.of();
+            List<FileComponent> children = new ArrayList<>();
+            for (int child = firstChild[index]; child != NONE; child = nextSibling[child]) {
+                children.add(new Node(child));
+            }
+            return children;
+        }
+
+        int index() {
+            return index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Node other && other.index == index && other.tree() == CompactFileTree.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        private CompactFileTree tree() {
+            return CompactFileTree.this;
+        }
+
+        @Override
+        public String toString() {
+            return getPath();
+        }
+    }
+}
@@ -1,145 +1,17 @@
 package com.darunkar.design_patterns;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
-//Component Interface ( common for both file and folder)
-interface FileComponent{
-    void showDetails(String indent);
-    int getSize();
-    FileComponent search(String name);
-    int countFiles();
-    boolean delete(String name);
-}
-
-// implementation of file
-class FileLeaf implements FileComponent{
-    private String name;
-    private int size;
-
-    public FileLeaf(String name, int size){
-        this.name = name;
-        this.size = size;
-    }
-    @Override
-    public void showDetails(String indent) {
-        System.out.println(indent + "📄 " + name + " (" + size + "KB)");
-    }
-
-    @Override
-    public int getSize() {
-        return size;
-    }
-
-    @Override
-    public FileComponent search(String name) {
-        return this.name.equals(name) ? this : null;
-    }
-
-    @Override
-    public int countFiles() {
-        return 1;
-    }
-
-    public String getName() {
-        return name;
-    }
-
-    @Override
-    public boolean delete(String name) {
-        return false;
-    }
-}
-
-class FolderComposite implements FileComponent{
-
-    private String name;
-    private List<FileComponent> children = new ArrayList<>();
-    public FolderComposite(String name){
-        this.name = name;
-    }
-
-    @Override
-    public void showDetails(String indent) {
-        System.out.println(indent + "📁 " + name + "/");
-        for(FileComponent child: children) {
-            child.showDetails(indent + "  ");
-        }
-    }
-
-    @Override
-    public int getSize() {
-        int totalSize = 0;
-        for(FileComponent child : children){
-            totalSize += child.getSize();
-        }
-        return totalSize;
-    }
-
-    public void add(FileComponent fileComponent){
-        children.add(fileComponent);
-    }
-
-    public void remove(FileComponent fileComponent){
-        children.remove(fileComponent);
-    }
-
-    public FileComponent search(String name) {
-
-        if(this.name.equals(name)) return this;
-        for(FileComponent child: children){
-            FileComponent found = child.search(name);
-            if(found != null) return found;
-        }
-        return null;
-    }
-
-    @Override
-    public int countFiles() {
-        int count = 0;
-        for(FileComponent child : children){
-            count+=1;
-        }
-        return count;
-    }
-
-    @Override
-    public boolean delete(String name) {
-
-        Iterator<FileComponent> it = children.iterator();
-
-        while(it.hasNext()){
-            FileComponent child = it.next();
-
-            if(child instanceof FileLeaf file && file.getName().equals(name)){
-                it.remove();
-                System.out.println("File is deleted ! " +  name);
-                return true;
-            }else if(child instanceof FolderComposite folder){
-                if(folder.name.equals(name)){
-                    it.remove();
-                    System.out.println("Folder is deleted ! " +  name);
-                    return true;
-                }else if(folder.delete(name)){
-                    return true;
-                }
-            }
-        }
-
-        return false;
-
-    }
-}
-
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
 
 public class ComposeFileSystemDemo {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
 
-        FileComponent file1 = new FileLeaf("file1", 100);
-        FileComponent file2 = new FileLeaf("file2", 200);
-        FileComponent file3 = new FileLeaf("file3", 300);
+        FileComponent file1 = new FileLeaf("file1", 100 * 1024);
+        FileComponent file2 = new FileLeaf("file2", 200 * 1024);
+        FileComponent file3 = new FileLeaf("file3", 300 * 1024);
 
         FolderComposite documentFolder = new FolderComposite("Documents");
         FolderComposite imageFolder = new FolderComposite("Images");
@@ -153,24 +25,67 @@ public class ComposeFileSystemDemo {
         rootFolder.add(documentFolder);
         rootFolder.add(imageFolder);
 
-        rootFolder.add(new FileLeaf("file10", 10));
+        rootFolder.add(new FileLeaf("file10", 10 * 1024));
         rootFolder.showDetails("");
 
         String seachFile="file1";
         FileComponent foundFile=rootFolder.search(seachFile);
         System.out.println();
-        System.out.println(foundFile != null ? seachFile + " Found" : "Not Found");
+        System.out.println(foundFile != null ? seachFile + " Found at " + foundFile.getPath() : "Not Found");
+        System.out.println("Names starting with 'file1': " + rootFolder.searchByPrefix("file1").size());
+        System.out.println("Names matching 'file?': " + rootFolder.searchGlob("file?").size());
 
         System.out.println("\nSize of root folder " + rootFolder.getSize());
 
+        ParallelTreeTraversal traversal = new ParallelTreeTraversal();
+        System.out.println("Size of root folder (fork/join) " + traversal.totalSize(rootFolder));
+        System.out.println("Nodes in tree (fork/join) " + traversal.countNodes(rootFolder));
+        System.out.println("file3 (fork/join) found at " + traversal.search(rootFolder, "file3").getPath());
+
         rootFolder.delete("Images");
         rootFolder.delete("file2");
 
         rootFolder.showDetails("");
-        rootFolder.countFiles();
-        System.out.println("\nSize of root folder " + rootFolder.getSize());
-
-
-
+        System.out.println("\nFiles in root folder " + rootFolder.countFiles());
+        System.out.println("Size of root folder " + rootFolder.getSize());
+
+        System.out.println("First level only, lines 2-3:");
+        new TreeRenderer(1, 1, 2).render(rootFolder, System.out);
+
+        CompactFileTree compact = CompactFileTree.copyOf(rootFolder);
+        FileComponent compactRoot = compact.rootView();
+        compactRoot.showDetails("");
+        System.out.println("Compact copy: " + compactRoot.countFiles() + " files, " + compactRoot.getSize() + " bytes, "
+                + "file1 at " + compactRoot.search("file1").getPath());
+
+        // Optional: load a real directory, e.g. ComposeFileSystemDemo /usr/share
+        if (args.length > 0) {
+            long start = System.nanoTime();
+            try (DiskTreeWatcher watcher = new DiskTreeWatcher(Path.of(args[0]), new DiskTreeLoader())) {
+                FolderComposite disk = watcher.getRoot();
+                System.out.println("\nLoaded " + args[0] + " in " + (System.nanoTime() - start) / 1_000_000 + " ms: "
+                        + disk.countFiles() + " files, " + FileLeaf.formatSize(disk.getSize()));
+                CompactFileTree compactDisk = CompactFileTree.copyOf(disk);
+                compactDisk.trimToSize();
+                System.out.println("Compact copy: " + compactDisk.nodeCount() + " nodes, "
+                        + compactDisk.estimatedHeapBytes() / compactDisk.nodeCount() + " bytes/node including names");
+
+                Path snapshotFile = Files.createTempFile("tree", ".snapshot");
+                TreeSnapshot.write(disk, snapshotFile);
+                start = System.nanoTime();
+                FileComponent snapshotRoot = TreeSnapshot.open(snapshotFile).rootView();
+                System.out.println("Snapshot opened in " + (System.nanoTime() - start) / 1_000 + " us: "
+                        + snapshotRoot.countFiles() + " files, " + FileLeaf.formatSize(snapshotRoot.getSize()));
+                // Java can't unmap on demand and Windows refuses to delete a mapped file; there the
+                // deleteOnExit tries again when the JVM exits
+                try {
+                    Files.delete(snapshotFile);
+                } catch (IOException ex) {
+                    snapshotFile.toFile().deleteOnExit();
+                }
+                int changes = watcher.processEvents(2, TimeUnit.SECONDS);
+                System.out.println("Changes applied while watching: " + changes + ", size now " + FileLeaf.formatSize(disk.getSize()));
+            }
+        }
     }
 }
@@ -0,0 +1,40 @@
+package com.darunkar.design_patterns;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+// Double-checked locking singleton (lazy init)
+class ConnectionPoolDCL implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static volatile ConnectionPoolDCL instance;
+    private final transient BoundedConnectionPool pool;
+
+    private ConnectionPoolDCL() {
+        // Guard against reflection: prevent creating a second instance after instance already exists
+        if (instance != null) {
+            throw new IllegalStateException("Singleton already created. Use getInstance().");
+        }
+        // simulate expensive init
+        this.pool = new BoundedConnectionPool("dcl", 2, 10, 30, TimeUnit.SECONDS);
+    }
+
+    public static ConnectionPoolDCL getInstance() {
+        if (instance == null) {
+            synchronized (ConnectionPoolDCL.class) {
+                if (instance == null) {
+                    instance = new ConnectionPoolDCL();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public BoundedConnectionPool getPool() { return pool; }
+
+    public PooledConnection borrow() { return pool.borrow(5, TimeUnit.SECONDS); }
+
+    // fix for serialization: ensure deserialized object resolves to the same singleton instance
+    private Object readResolve() {
+        return getInstance();
+    }
+}
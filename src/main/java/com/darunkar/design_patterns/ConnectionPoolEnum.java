@@ -0,0 +1,18 @@
+package com.darunkar.design_patterns;
+
+import java.util.concurrent.TimeUnit;
+
+// Enum-based singleton (most robust: protects against serialization and reflection)
+enum ConnectionPoolEnum {
+    INSTANCE;
+
+    private final BoundedConnectionPool pool;
+
+    ConnectionPoolEnum() {
+        this.pool = new BoundedConnectionPool("enum", 2, 10, 30, TimeUnit.SECONDS);
+    }
+
+    public BoundedConnectionPool getPool() { return pool; }
+
+    public PooledConnection borrow() { return pool.borrow(5, TimeUnit.SECONDS); }
+}
@@ -0,0 +1,23 @@
+package com.darunkar.design_patterns;
+
+import java.util.concurrent.TimeUnit;
+
+// Holder idiom: lazy like DCL, but the JVM's class initialization does the locking,
+// so getInstance() is a plain static field read once the holder is initialized
+class ConnectionPoolHolder {
+    private final BoundedConnectionPool pool;
+
+    private ConnectionPoolHolder() {
+        this.pool = new BoundedConnectionPool("holder", 2, 10, 30, TimeUnit.SECONDS);
+    }
+
+    private static class Holder {
+        private static final ConnectionPoolHolder INSTANCE = new ConnectionPoolHolder();
+    }
+
+    public static ConnectionPoolHolder getInstance() { return Holder.INSTANCE; }
+
+    public BoundedConnectionPool getPool() { return pool; }
+
+    public PooledConnection borrow() { return pool.borrow(5, TimeUnit.SECONDS); }
+}
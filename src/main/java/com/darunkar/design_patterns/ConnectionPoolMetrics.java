@@ -0,0 +1,79 @@
+package com.darunkar.design_patterns;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Publishes the connection pool singletons through Actuator (/actuator/metrics/pool.connections.*),
+// one set of meters per pool, tagged pool=dcl|enum|holder
+@Component
+public class ConnectionPoolMetrics implements MeterBinder {
+
+    private final long leakThresholdMs;
+
+    public ConnectionPoolMetrics(@Value("${pool.leak-detection-threshold-ms:60000}") long leakThresholdMs) {
+        this.leakThresholdMs = leakThresholdMs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        List<BoundedConnectionPool> pools = List.of(
+                ConnectionPoolDCL.getInstance().getPool(),
+                ConnectionPoolEnum.INSTANCE.getPool(),
+                ConnectionPoolHolder.getInstance().getPool());
+
+        for (BoundedConnectionPool pool : pools) {
+            bindPool(registry, pool);
+        }
+    }
+
+    private void bindPool(MeterRegistry registry, BoundedConnectionPool pool) {
+        String name = pool.getName();
+
+        Gauge.builder("pool.connections.active", pool, BoundedConnectionPool::getActiveConnections)
+                .tag("pool", name).description("Connections currently borrowed").register(registry);
+        Gauge.builder("pool.connections.idle", pool, BoundedConnectionPool::getIdleConnections)
+                .tag("pool", name).description("Connections ready to be borrowed").register(registry);
+        Gauge.builder("pool.connections.pending", pool, BoundedConnectionPool::getPendingBorrowers)
+                .tag("pool", name).description("Threads waiting for a connection").register(registry);
+        Gauge.builder("pool.connections.total", pool, BoundedConnectionPool::getTotalConnections)
+                .tag("pool", name).description("Open connections").register(registry);
+        Gauge.builder("pool.connections.max", pool, BoundedConnectionPool::getMaxSize)
+                .tag("pool", name).description("Pool size limit").register(registry);
+
+        Timer borrowWait = Timer.builder("pool.connections.borrow.wait")
+                .tag("pool", name).description("Time spent acquiring a connection")
+                .publishPercentileHistogram().register(registry);
+        Timer creation = Timer.builder("pool.connections.creation")
+                .tag("pool", name).description("Time spent opening a connection")
+                .publishPercentileHistogram().register(registry);
+        Counter leaks = Counter.builder("pool.connections.leaks")
+                .tag("pool", name).description("Connections held longer than the leak detection threshold")
+                .register(registry);
+
+        pool.setLeakDetectionThreshold(leakThresholdMs, TimeUnit.MILLISECONDS);
+        pool.addMetricsTracker(new PoolMetricsTracker() {
+            @Override
+            public void recordBorrowWait(long nanos) {
+                borrowWait.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordConnectionCreation(long nanos) {
+                creation.record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordLeak(long heldNanos) {
+                leaks.increment();
+            }
+        });
+    }
+}
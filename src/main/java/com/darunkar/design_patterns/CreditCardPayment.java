@@ -0,0 +1,8 @@
+package com.darunkar.design_patterns;
+
+// Concrete product
+class CreditCardPayment implements Payment {
+    public void pay(Money amount) {
+        System.out.println("Paid " + amount + " using Credit Card");
+    }
+}
@@ -0,0 +1,8 @@
+package com.darunkar.design_patterns;
+
+// Concrete factory
+class CreditCardPaymentFactory implements PaymentFactory {
+    public Payment createPayment() {
+        return new CreditCardPayment();
+    }
+}
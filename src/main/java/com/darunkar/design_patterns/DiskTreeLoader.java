@@ -0,0 +1,112 @@
+package com.darunkar.design_patterns;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+// Builds the composite tree from a real directory. Every directory is listed by its own fork/join
+// task (Files.walkFileTree with maxDepth 1, so sizes come from the BasicFileAttributes of the listing),
+// subdirectories are forked, and each task assembles only its own folder, so building needs no locks.
+// Symbolic links are not followed.
+class DiskTreeLoader {
+
+    private final ForkJoinPool pool;
+
+    DiskTreeLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    DiskTreeLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    FolderComposite load(Path directory) throws IOException {
+        return load(directory, null, null);
+    }
+
+    // folders (optional, must be thread-safe) receives the folder built for every directory.
+    // beforeListing (optional, must be thread-safe) is called with every directory just before it is
+    // listed, e.g. to start watching it so nothing created during the load goes unnoticed.
+    FolderComposite load(Path directory, Map<Path, FolderComposite> folders, Consumer<Path> beforeListing) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Not a directory: " + directory);
+        }
+        try {
+            return pool.invoke(new LoadTask(directory, folders, beforeListing));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    static String nameOf(Path path) {
+        Path fileName = path.getFileName();
+        return fileName != null ? fileName.toString() : path.toString();
+    }
+
+    private static final class LoadTask extends RecursiveTask<FolderComposite> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+        private final Map<Path, FolderComposite> folders;
+        private final Consumer<Path> beforeListing;
+
+        LoadTask(Path directory, Map<Path, FolderComposite> folders, Consumer<Path> beforeListing) {
+            this.directory = directory;
+            this.folders = folders;
+            this.beforeListing = beforeListing;
+        }
+
+        @Override
+        protected FolderComposite compute() {
+            FolderComposite folder = new FolderComposite(nameOf(directory));
+            if (folders != null) folders.put(directory, folder);
+            if (beforeListing != null) beforeListing.accept(directory);
+
+            List<LoadTask> subdirectories = new ArrayList<>();
+            List<FileLeaf> files = new ArrayList<>();
+            try {
+                Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        if (attrs.isDirectory()) {
+                            subdirectories.add(new LoadTask(file, folders, beforeListing));
+                        } else {
+                            files.add(new FileLeaf(nameOf(file), attrs.size()));
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        // unreadable entry (permissions, deleted mid-scan): skip it, keep the rest
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+
+            ForkJoinTask.invokeAll(subdirectories);
+            for (FileLeaf file : files) {
+                folder.add(file);
+            }
+            for (LoadTask subdirectory : subdirectories) {
+                folder.add(subdirectory.join());
+            }
+            return folder;
+        }
+    }
+}
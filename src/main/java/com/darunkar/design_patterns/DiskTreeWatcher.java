@@ -0,0 +1,189 @@
+package com.darunkar.design_patterns;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+// Keeps a tree loaded by DiskTreeLoader in sync with the disk through WatchService events, touching only
+// the directories that reported a change (never a full rescan). Events are applied on the caller's thread
+// in processEvents(), so the tree keeps a single writer.
+class DiskTreeWatcher implements Closeable {
+
+    private final DiskTreeLoader loader;
+    private final WatchService watchService;
+    // concurrent because the loader registers directories from its fork/join workers
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> keys = new ConcurrentHashMap<>();
+    private final Map<Path, FolderComposite> folders = new ConcurrentHashMap<>();
+    private final FolderComposite root;
+
+    // Every directory is registered right before the loader lists it, so anything created during the
+    // load shows up as an event; events for entries the listing already saw are no-ops.
+    DiskTreeWatcher(Path rootDirectory, DiskTreeLoader loader) throws IOException {
+        this.loader = loader;
+        this.watchService = rootDirectory.getFileSystem().newWatchService();
+        this.root = loader.load(rootDirectory, folders, this::register);
+    }
+
+    FolderComposite getRoot() {
+        return root;
+    }
+
+    // Waits up to timeout for the first change, then applies everything already queued; returns events applied
+    int processEvents(long timeout, TimeUnit unit) throws IOException, InterruptedException {
+        int applied = 0;
+        WatchKey key;
+        try {
+            key = watchService.poll(timeout, unit);
+            while (key != null) {
+                applied += apply(key);
+                key = watchService.poll();
+            }
+        } catch (ClosedWatchServiceException ex) {
+            return applied;
+        }
+        return applied;
+    }
+
+    private int apply(WatchKey key) throws IOException {
+        Path directory = directories.get(key);
+        FolderComposite folder = directory != null ? folders.get(directory) : null;
+        int applied = 0;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (folder == null) break;
+            if (event.kind() == OVERFLOW) {
+                resync(directory, folder);
+            } else {
+                Path child = directory.resolve((Path) event.context());
+                if (event.kind() == ENTRY_DELETE) {
+                    removeChild(folder, child);
+                } else if (event.kind() == ENTRY_CREATE || event.kind() == ENTRY_MODIFY) {
+                    refreshChild(folder, child);
+                }
+            }
+            applied++;
+        }
+
+        if (!key.reset()) {
+            directories.remove(key); // directory is gone, its DELETE event cleans up the tree
+            if (directory != null) keys.remove(directory, key);
+        }
+        return applied;
+    }
+
+    // (Re)reads one entry: files are replaced with their new size, new directories are loaded and watched
+    private void refreshChild(FolderComposite folder, Path path) throws IOException {
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException ex) {
+            removeChild(folder, path); // already gone again
+            return;
+        }
+
+        FileComponent existing = folder.getChild(DiskTreeLoader.nameOf(path));
+        if (attrs.isDirectory()) {
+            if (existing instanceof FolderComposite) return; // MODIFY on a known directory: its own key reports the details
+            if (existing != null) folder.remove(existing);
+            // watched before listed, so no second listing is needed to catch entries created meanwhile
+            folder.add(loader.load(path, folders, this::register));
+        } else {
+            if (existing instanceof FileLeaf && existing.getSize() == attrs.size()) return;
+            if (existing != null) folder.remove(existing);
+            folder.add(new FileLeaf(DiskTreeLoader.nameOf(path), attrs.size()));
+        }
+    }
+
+    private void removeChild(FolderComposite folder, Path path) {
+        FileComponent existing = folder.getChild(DiskTreeLoader.nameOf(path));
+        if (existing == null) return;
+        folder.remove(existing);
+        if (existing instanceof FolderComposite removed) {
+            forget(path, removed);
+        }
+    }
+
+    // Stops watching a removed folder and its subfolders; walks only the removed subtree
+    private void forget(Path path, FolderComposite removed) {
+        Deque<Path> paths = new ArrayDeque<>();
+        Deque<FolderComposite> pending = new ArrayDeque<>();
+        paths.push(path);
+        pending.push(removed);
+        while (!pending.isEmpty()) {
+            Path directory = paths.pop();
+            FolderComposite folder = pending.pop();
+            folders.remove(directory, folder);
+            WatchKey key = keys.remove(directory);
+            if (key != null) {
+                key.cancel();
+                directories.remove(key);
+            }
+            for (FileComponent child : folder.getChildren()) {
+                if (child instanceof FolderComposite subfolder) {
+                    paths.push(directory.resolve(child.getName()));
+                    pending.push(subfolder);
+                }
+            }
+        }
+    }
+
+    // Events were lost for this directory: compare its listing with the folder, one level deep
+    private void resync(Path directory, FolderComposite folder) throws IOException {
+        Set<String> onDisk = new HashSet<>();
+        List<Path> entries = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path entry : stream) {
+                onDisk.add(DiskTreeLoader.nameOf(entry));
+                entries.add(entry);
+            }
+        } catch (IOException ex) {
+            return; // directory vanished, the parent's DELETE event handles it
+        }
+        for (FileComponent child : new ArrayList<>(folder.getChildren())) {
+            if (!onDisk.contains(child.getName())) {
+                removeChild(folder, directory.resolve(child.getName()));
+            }
+        }
+        for (Path entry : entries) {
+            refreshChild(folder, entry);
+        }
+    }
+
+    private void register(Path directory) {
+        try {
+            WatchKey key = directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+            directories.put(key, directory);
+            keys.put(directory, key);
+        } catch (IOException ex) {
+            // deleted or unreadable since it was listed; nothing to watch
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
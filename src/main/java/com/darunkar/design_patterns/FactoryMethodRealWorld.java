@@ -1,4 +1,6 @@
-package com.darunkar.design_patterns;/*
+package com.darunkar.design_patterns;
+
+/*
  04_FactoryMethodRealWorld.java
  Real-world Factory Method demo with interface-based factories.
  - No switch statements
@@ -6,54 +8,6 @@ package com.darunkar.design_patterns;/*
  - Easy to add new payment types
 */
 
-// Product interface
-interface Payment {
-    void pay(double amount);
-}
-
-// Concrete products
-class CreditCardPayment implements Payment {
-    public void pay(double amount) {
-        System.out.println("Paid " + amount + " using Credit Card");
-    }
-}
-
-class PayPalPayment implements Payment {
-    public void pay(double amount) {
-        System.out.println("Paid " + amount + " using PayPal");
-    }
-}
-
-class UPIPayment implements Payment {
-    public void pay(double amount) {
-        System.out.println("Paid " + amount + " using UPI");
-    }
-}
-
-// Factory interface
-interface PaymentFactory {
-    Payment createPayment();
-}
-
-// Concrete factories
-class CreditCardPaymentFactory implements PaymentFactory {
-    public Payment createPayment() {
-        return new CreditCardPayment();
-    }
-}
-
-class PayPalPaymentFactory implements PaymentFactory {
-    public Payment createPayment() {
-        return new PayPalPayment();
-    }
-}
-
-class UPIPaymentFactory implements PaymentFactory {
-    public Payment createPayment() {
-        return new UPIPayment();
-    }
-}
-
 // Client / Demo
 public class FactoryMethodRealWorld {
     public static void main(String[] args) {
@@ -66,13 +20,13 @@ public class FactoryMethodRealWorld {
         Payment p2 = ppFactory.createPayment();
         Payment p3 = upiFactory.createPayment();
 
-        p1.pay(1000);
-        p2.pay(2500);
-        p3.pay(500);
+        p1.pay(Money.ofMajor(1000, "INR"));
+        p2.pay(Money.ofMajor(2500, "INR"));
+        p3.pay(Money.ofMajor(500, "INR"));
 
         // Adding a new payment type is simple
         class CryptoPayment implements Payment {
-            public void pay(double amount) {
+            public void pay(Money amount) {
                 System.out.println("Paid " + amount + " using Cryptocurrency");
             }
         }
@@ -82,6 +36,32 @@ public class FactoryMethodRealWorld {
 
         PaymentFactory cryptoFactory = new CryptoPaymentFactory();
         Payment cryptoPayment = cryptoFactory.createPayment();
-        cryptoPayment.pay(1500);
+        cryptoPayment.pay(Money.ofMajor(1500, "INR"));
+
+        // Registry: factories resolved once, stateless payments shared, stateful ones pooled
+        PaymentFactoryRegistry registry = PaymentFactoryRegistry.getInstance();
+        registry.pay(PaymentType.UPI, Money.ofMajor(250, "INR"));
+        registry.pay("paypal", Money.ofMajor(750, "INR"));
+
+        class WalletPayment implements Payment {
+            private int signatures; // per-payment state, so instances can't be shared
+
+            public void pay(Money amount) {
+                signatures++;
+                System.out.println("Paid " + amount + " from wallet (" + signatures + " signature)");
+            }
+
+            public void reset() {
+                signatures = 0;
+            }
+        }
+        registry.register("wallet", new PaymentFactory() {
+            public Payment createPayment() { return new WalletPayment(); }
+            public boolean isStateless() { return false; }
+        });
+        for (int i = 1; i <= 3; i++) {
+            registry.pay("Wallet", Money.ofMajor(100L * i, "INR"));
+        }
+        System.out.println("Wallet payments created: " + registry.created("wallet"));
     }
 }
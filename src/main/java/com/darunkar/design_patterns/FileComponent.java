@@ -0,0 +1,32 @@
+package com.darunkar.design_patterns;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+//Component Interface ( common for both file and folder)
+interface FileComponent{
+    void showDetails(String indent);
+    long getSize();
+    FileComponent search(String name);
+    int countFiles();
+    boolean delete(String name);
+    String getName();
+    FileComponent getParent();
+
+    default List<FileComponent> getChildren() {
+        return List.of();
+    }
+
+    default boolean isFolder() {
+        return false;
+    }
+
+    default String getPath() {
+        Deque<String> names = new ArrayDeque<>();
+        for(FileComponent node = this; node != null; node = node.getParent()){
+            names.push(node.getName());
+        }
+        return String.join("/", names);
+    }
+}
@@ -0,0 +1,51 @@
+package com.darunkar.design_patterns;
+
+// implementation of file (size in bytes)
+class FileLeaf implements FileComponent{
+    private String name;
+    private long size;
+    FolderComposite parent;
+
+    public FileLeaf(String name, long size){
+        this.name = name;
+        this.size = size;
+    }
+    @Override
+    public void showDetails(String indent) {
+        TreeRenderer.print(this, indent);
+    }
+
+    static String formatSize(long bytes) {
+        return bytes < 1024 ? bytes + "B" : (bytes + 1023) / 1024 + "KB";
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public FileComponent search(String name) {
+        return this.name.equals(name) ? this : null;
+    }
+
+    @Override
+    public int countFiles() {
+        return 1;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public FileComponent getParent() {
+        return parent;
+    }
+
+    @Override
+    public boolean delete(String name) {
+        return false;
+    }
+}
@@ -0,0 +1,252 @@
+package com.darunkar.design_patterns;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+// Keeps its subtree size and recursive file count up to date on every add/remove/delete
+// (O(depth) through the parent links), so getSize() and countFiles() are O(1).
+// The root folder builds a NameIndex of the whole tree on the first search, so search/delete are
+// hash lookups; folders that are never searched never pay for one.
+class FolderComposite implements FileComponent{
+
+    private String name;
+    private List<FileComponent> children = new ArrayList<>();
+    FolderComposite parent;
+    private long totalSize;
+    private int fileCount;
+    private NameIndex index; // only on a root, and only once something has searched the tree
+
+    public FolderComposite(String name){
+        this.name = name;
+    }
+
+    @Override
+    public void showDetails(String indent) {
+        TreeRenderer.print(this, indent);
+    }
+
+    @Override
+    public long getSize() {
+        return totalSize;
+    }
+
+    public void add(FileComponent fileComponent){
+        for(FolderComposite folder = this; folder != null; folder = folder.parent){
+            if(folder == fileComponent) throw new IllegalArgumentException("Cannot add a folder to itself or one of its subfolders");
+        }
+        if(fileComponent.getParent() instanceof FolderComposite previous){
+            previous.remove(fileComponent);
+        }
+        children.add(fileComponent);
+        attached(fileComponent);
+    }
+
+    public void remove(FileComponent fileComponent){
+        if(children.remove(fileComponent)){
+            detached(fileComponent);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public FileComponent getParent() {
+        return parent;
+    }
+
+    @Override
+    public List<FileComponent> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    @Override
+    public boolean isFolder() {
+        return true;
+    }
+
+    // direct child only, O(children)
+    FileComponent getChild(String name){
+        for(FileComponent child : children){
+            if(child.getName().equals(name)) return child;
+        }
+        return null;
+    }
+
+    private void attached(FileComponent child){
+        setParent(child, this);
+        propagate(child.getSize(), child.countFiles());
+
+        NameIndex incoming = null;
+        if(child instanceof FolderComposite folder){
+            incoming = folder.index; // no longer a root
+            folder.index = null;
+        }
+        FolderComposite root = root();
+        if(root.index == null) return; // built on the first search
+
+        if(incoming != null){
+            // merge the smaller index into the larger one, so building bottom-up stays O(n log n)
+            if(incoming.size() > root.index.size()){
+                incoming.addAll(root.index);
+                root.index = incoming;
+            }else{
+                root.index.addAll(incoming);
+            }
+        }else if(child instanceof FolderComposite folder){
+            for(FileComponent node : folder.subtree()) root.index.add(node);
+        }else{
+            root.index.add(child);
+        }
+    }
+
+    // the detached folder becomes a root without an index; it builds its own if it is searched
+    private void detached(FileComponent child){
+        NameIndex rootIndex = root().index;
+        if(rootIndex != null){
+            if(child instanceof FolderComposite folder){
+                for(FileComponent node : folder.subtree()) rootIndex.remove(node);
+            }else{
+                rootIndex.remove(child);
+            }
+        }
+
+        setParent(child, null);
+        propagate(-child.getSize(), -child.countFiles());
+    }
+
+    private FolderComposite root(){
+        FolderComposite root = this;
+        while(root.parent != null) root = root.parent;
+        return root;
+    }
+
+    private NameIndex index(){
+        FolderComposite root = root();
+        if(root.index == null){
+            NameIndex built = new NameIndex();
+            for(FileComponent node : root.subtree()) built.add(node);
+            root.index = built;
+        }
+        return root.index;
+    }
+
+    // this folder and everything below it, without recursion
+    private List<FileComponent> subtree(){
+        List<FileComponent> nodes = new ArrayList<>();
+        Deque<FileComponent> stack = new ArrayDeque<>();
+        stack.push(this);
+        while(!stack.isEmpty()){
+            FileComponent node = stack.pop();
+            nodes.add(node);
+            if(node instanceof FolderComposite folder){
+                for(FileComponent child : folder.children) stack.push(child);
+            }
+        }
+        return nodes;
+    }
+
+    private boolean isAncestorOf(FileComponent node){
+        for(FileComponent p = node.getParent(); p != null; p = p.getParent()){
+            if(p == this) return true;
+        }
+        return false;
+    }
+
+    // The descendant a recursive pre-order walk from this folder would reach first, or null.
+    // Duplicate names are rare, so the ordering work only happens when there are several.
+    private FileComponent firstDescendant(Set<FileComponent> candidates){
+        FileComponent first = null;
+        int[] firstPosition = null;
+        for(FileComponent candidate : candidates){
+            if(!isAncestorOf(candidate)) continue;
+            if(first == null){
+                first = candidate;
+                continue;
+            }
+            if(firstPosition == null) firstPosition = positionOf(first);
+            int[] position = positionOf(candidate);
+            if(Arrays.compare(position, firstPosition) < 0){
+                first = candidate;
+                firstPosition = position;
+            }
+        }
+        return first;
+    }
+
+    // child indexes on the way down from this folder; lexicographic order is pre-order
+    private int[] positionOf(FileComponent descendant){
+        Deque<Integer> path = new ArrayDeque<>();
+        for(FileComponent node = descendant; node != this; node = node.getParent()){
+            path.push(((FolderComposite) node.getParent()).children.indexOf(node));
+        }
+        int[] position = new int[path.size()];
+        int i = 0;
+        for(int index : path) position[i++] = index;
+        return position;
+    }
+
+    // push the change up to the root
+    private void propagate(long sizeDelta, int fileDelta){
+        for(FolderComposite folder = this; folder != null; folder = folder.parent){
+            folder.totalSize += sizeDelta;
+            folder.fileCount += fileDelta;
+        }
+    }
+
+    private static void setParent(FileComponent child, FolderComposite parent){
+        if(child instanceof FileLeaf file){
+            file.parent = parent;
+        }else if(child instanceof FolderComposite folder){
+            folder.parent = parent;
+        }
+    }
+
+    public FileComponent search(String name) {
+
+        if(this.name.equals(name)) return this;
+        return firstDescendant(index().lookup(name));
+    }
+
+    public List<FileComponent> searchByPrefix(String prefix) {
+        return withinSubtree(index().withPrefix(prefix));
+    }
+
+    public List<FileComponent> searchGlob(String glob) {
+        return withinSubtree(index().matching(glob));
+    }
+
+    private List<FileComponent> withinSubtree(List<FileComponent> candidates){
+        if(parent == null) return candidates; // the root's index holds exactly its subtree
+        List<FileComponent> result = new ArrayList<>();
+        for(FileComponent candidate : candidates){
+            if(candidate == this || isAncestorOf(candidate)) result.add(candidate);
+        }
+        return result;
+    }
+
+    // files in the whole subtree, folders themselves not counted
+    @Override
+    public int countFiles() {
+        return fileCount;
+    }
+
+    @Override
+    public boolean delete(String name) {
+
+        FileComponent target = firstDescendant(index().lookup(name));
+        if(target == null) return false;
+
+        ((FolderComposite) target.getParent()).remove(target);
+        System.out.println((target instanceof FolderComposite ? "Folder" : "File") + " is deleted ! " + name);
+        return true;
+
+    }
+}
@@ -0,0 +1,126 @@
+package com.darunkar.design_patterns;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Merges concurrent single-id lookups into one bulk backend call: the first id in an empty window starts
+// a timer, every id that arrives before it fires (or before the batch is full) rides along, and callers
+// asking for the same id in one window share its result. Bulk calls go straight through.
+// The timer thread only cuts batches; the backend calls for timed-out windows run on a separate
+// dispatcher pool, so one slow bulk call doesn't hold up the next window's timer.
+class MicroBatchingProductService implements ProductService, AutoCloseable{
+
+    private final ProductService productService;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer;
+    private final ExecutorService dispatcher;
+
+    private final Object lock = new Object();
+    private Map<String, CompletableFuture<String>> pending = new LinkedHashMap<>(); // guarded by lock
+    private long window;                                                          // guarded by lock
+    private boolean closed;                                                       // guarded by lock
+
+    public MicroBatchingProductService(ProductService productService, long window, TimeUnit unit, int maxBatchSize) {
+        if(maxBatchSize < 1) throw new IllegalArgumentException("maxBatchSize must be >= 1");
+        this.productService = productService;
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-micro-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "product-micro-batch-dispatch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String getProductDetails(String productId) {
+        CompletableFuture<String> value;
+        Map<String, CompletableFuture<String>> full = null;
+        long scheduleWindow = -1;
+        synchronized(lock){
+            if(closed) throw new IllegalStateException("MicroBatchingProductService is closed");
+            value = pending.get(productId);
+            if(value == null){
+                value = new CompletableFuture<>();
+                pending.put(productId, value);
+                if(pending.size() >= maxBatchSize){
+                    full = takePending();
+                }else if(pending.size() == 1){
+                    scheduleWindow = window; // first id of a new window
+                }
+            }
+        }
+        if(full != null){
+            dispatch(full); // the caller that filled the batch sends it
+        }else if(scheduleWindow >= 0){
+            long windowToFlush = scheduleWindow;
+            try{
+                timer.schedule(() -> flush(windowToFlush), windowNanos, TimeUnit.NANOSECONDS);
+            }catch(RejectedExecutionException ex){
+                flush(windowToFlush); // close() raced us; it has normally sent this window already
+            }
+        }
+        return CachingProductServiceProxy.await(value);
+    }
+
+    @Override
+    public Map<String, String> getProductDetails(Collection<String> productIds) {
+        return productService.getProductDetails(productIds);
+    }
+
+    private Map<String, CompletableFuture<String>> takePending(){
+        Map<String, CompletableFuture<String>> batch = pending;
+        pending = new LinkedHashMap<>();
+        window++;
+        return batch;
+    }
+
+    // A timer only flushes the window it was started for; that batch may already have gone out when full
+    private void flush(long expectedWindow){
+        Map<String, CompletableFuture<String>> batch;
+        synchronized(lock){
+            if(window != expectedWindow || pending.isEmpty()) return;
+            batch = takePending();
+        }
+        try{
+            dispatcher.execute(() -> dispatch(batch));
+        }catch(RejectedExecutionException ex){
+            dispatch(batch); // closing: send it from here rather than drop it
+        }
+    }
+
+    private void dispatch(Map<String, CompletableFuture<String>> batch){
+        try{
+            Map<String, String> details = productService.getProductDetails(batch.keySet());
+            batch.forEach((productId, value) -> value.complete(details.get(productId)));
+        }catch(Throwable ex){
+            batch.values().forEach(value -> value.completeExceptionally(ex));
+        }
+    }
+
+    // Sends whatever is still waiting, then stops the timer and the dispatcher (batches already handed to it still go out)
+    @Override
+    public void close(){
+        Map<String, CompletableFuture<String>> batch;
+        synchronized(lock){
+            closed = true;
+            batch = takePending();
+        }
+        if(!batch.isEmpty()) dispatch(batch);
+        timer.shutdown();
+        dispatcher.shutdown();
+    }
+}
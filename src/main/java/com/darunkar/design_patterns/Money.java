@@ -0,0 +1,123 @@
+package com.darunkar.design_patterns;
+
+import java.util.Currency;
+
+// Exact amount of money: a long count of the currency's minor units (paise, cents) plus the currency.
+// No double rounding and no BigDecimal on the hot path; the per-currency power of ten used for parsing
+// and formatting comes from a table indexed by ISO 4217 numeric code, filled on first use.
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    private static final long[] FACTORS = new long[1000]; // numeric code -> 10^fraction digits, 0 = not loaded
+
+    public Money {
+        if (currency == null) throw new IllegalArgumentException("currency is required");
+        factor(currency); // rejects currencies without a fixed number of minor units (e.g. XAU)
+    }
+
+    public static Money ofMinor(long minorUnits, String currencyCode) {
+        return new Money(minorUnits, Currency.getInstance(currencyCode));
+    }
+
+    public static Money ofMajor(long majorUnits, String currencyCode) {
+        Currency currency = Currency.getInstance(currencyCode);
+        return new Money(Math.multiplyExact(majorUnits, factor(currency)), currency);
+    }
+
+    // Parses a plain decimal such as "49.99" or "-0.5"; more decimals than the currency has is an error, not a rounding
+    public static Money of(String amount, String currencyCode) {
+        Currency currency = Currency.getInstance(currencyCode);
+        int digits = currency.getDefaultFractionDigits();
+        String text = amount.trim();
+        boolean negative = text.startsWith("-");
+        if (negative || text.startsWith("+")) text = text.substring(1);
+
+        int dot = text.indexOf('.');
+        String whole = dot < 0 ? text : text.substring(0, dot);
+        String fraction = dot < 0 ? "" : text.substring(dot + 1);
+        if (whole.isEmpty() && fraction.isEmpty() || fraction.length() > digits
+                || !allDigits(whole) || !allDigits(fraction)) {
+            throw new IllegalArgumentException("Invalid " + currencyCode + " amount: " + amount);
+        }
+
+        long minor = whole.isEmpty() ? 0 : Math.multiplyExact(Long.parseLong(whole), factor(currency));
+        if (!fraction.isEmpty()) {
+            long scale = 1;
+            for (int i = fraction.length(); i < digits; i++) scale *= 10;
+            minor = Math.addExact(minor, Long.parseLong(fraction) * scale);
+        }
+        return new Money(negative ? -minor : minor, currency);
+    }
+
+    private static boolean allDigits(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < '0' || text.charAt(i) > '9') return false;
+        }
+        return true;
+    }
+
+    private static long factor(Currency currency) {
+        int code = currency.getNumericCode();
+        long factor = code >= 0 && code < FACTORS.length ? FACTORS[code] : 0;
+        if (factor != 0) return factor;
+
+        int digits = currency.getDefaultFractionDigits();
+        if (digits < 0) throw new IllegalArgumentException("Currency has no minor unit: " + currency);
+        factor = 1;
+        for (int i = 0; i < digits; i++) factor *= 10;
+        if (code >= 0 && code < FACTORS.length) FACTORS[code] = factor; // benign race: same value from every thread
+        return factor;
+    }
+
+    public String currencyCode() {
+        return currency.getCurrencyCode();
+    }
+
+    public Money plus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    private void checkSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    // Plain decimal with exactly the currency's fraction digits, e.g. "49.99", "-0.50", "500" for JPY
+    public String toDecimalString() {
+        long factor = factor(currency);
+        StringBuilder text = new StringBuilder(24);
+        if (minorUnits < 0) text.append('-');
+        long abs = Math.abs(minorUnits); // Long.MIN_VALUE stays negative, but no currency amount gets there
+        text.append(abs / factor);
+        if (factor > 1) {
+            String fraction = Long.toString(abs % factor + factor); // leading 1 keeps the zero padding
+            text.append('.').append(fraction, 1, fraction.length());
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String toString() {
+        return currency.getCurrencyCode() + " " + toDecimalString();
+    }
+}
@@ -0,0 +1,123 @@
+package com.darunkar.design_patterns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Tree-wide name index: concurrent multimap name -> nodes, plus a sorted name set for
+// prefix and glob queries. Built by the root folder of a tree on its first indexed query and kept
+// in sync on every mutation after that. Buckets are unordered; callers that need DFS order sort.
+// Most names are unique, so a value is the node itself and only becomes a set on the first duplicate.
+class NameIndex {
+    private final Map<String, Object> byName = new ConcurrentHashMap<>();
+    private final NavigableSet<String> names = new ConcurrentSkipListSet<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    void add(FileComponent node){
+        byName.compute(node.getName(), (name, current) -> {
+            if(current == null){
+                names.add(name);
+                size.incrementAndGet();
+                return node;
+            }
+            if(current instanceof Set<?> set){
+                if(asNodes(set).add(node)) size.incrementAndGet();
+                return set;
+            }
+            if(current == node) return current;
+            Set<FileComponent> nodes = ConcurrentHashMap.newKeySet();
+            nodes.add((FileComponent) current);
+            nodes.add(node);
+            size.incrementAndGet();
+            return nodes;
+        });
+    }
+
+    void remove(FileComponent node){
+        byName.computeIfPresent(node.getName(), (name, current) -> {
+            if(current instanceof Set<?> set){
+                if(set.remove(node)) size.decrementAndGet();
+                if(!set.isEmpty()) return set;
+            }else if(current == node){
+                size.decrementAndGet();
+            }else{
+                return current;
+            }
+            names.remove(name);
+            return null;
+        });
+    }
+
+    void addAll(NameIndex other){
+        for(Object value : other.byName.values()){
+            if(value instanceof Set<?> set){
+                for(FileComponent node : asNodes(set)) add(node);
+            }else{
+                add((FileComponent) value);
+            }
+        }
+    }
+
+    int size(){
+        return size.get();
+    }
+
+    Set<FileComponent> lookup(String name){
+        Object value = byName.get(name);
+        if(value == null) return Set.of();
+        if(value instanceof Set<?> set) return Collections.unmodifiableSet(asNodes(set));
+        return Set.of((FileComponent) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<FileComponent> asNodes(Set<?> set){
+        return (Set<FileComponent>) set;
+    }
+
+    List<FileComponent> withPrefix(String prefix){
+        List<FileComponent> result = new ArrayList<>();
+        for(String name : names.subSet(prefix, true, prefix + Character.MAX_VALUE, true)){
+            result.addAll(lookup(name));
+        }
+        return result;
+    }
+
+    // '*' = any run of characters, '?' = one character; only names sharing the literal prefix are tested
+    List<FileComponent> matching(String glob){
+        int wildcard = 0;
+        while(wildcard < glob.length() && glob.charAt(wildcard) != '*' && glob.charAt(wildcard) != '?') wildcard++;
+        String prefix = glob.substring(0, wildcard);
+        Pattern pattern = globToPattern(glob);
+
+        List<FileComponent> result = new ArrayList<>();
+        for(String name : names.subSet(prefix, true, prefix + Character.MAX_VALUE, true)){
+            if(pattern.matcher(name).matches()) result.addAll(lookup(name));
+        }
+        return result;
+    }
+
+    private static Pattern globToPattern(String glob){
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for(char c : glob.toCharArray()){
+            if(c == '*' || c == '?'){
+                if(literal.length() > 0){
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            }else{
+                literal.append(c);
+            }
+        }
+        if(literal.length() > 0) regex.append(Pattern.quote(literal.toString()));
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+}
@@ -0,0 +1,249 @@
+package com.darunkar.design_patterns;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+// Fork/join traversal over any FileComponent tree, for when cached aggregates aren't available.
+// Child lists longer than the sequential cutoff are split in halves; subfolders are forked as their
+// own tasks only while the pool is hungry for work, otherwise they're walked inline with an explicit stack.
+class ParallelTreeTraversal {
+
+    static final int DEFAULT_SEQUENTIAL_CUTOFF = 64;
+    private static final int MAX_SURPLUS_TASKS = 3;
+
+    private final ForkJoinPool pool;
+    private final int sequentialCutoff;
+
+    ParallelTreeTraversal() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_CUTOFF);
+    }
+
+    ParallelTreeTraversal(ForkJoinPool pool, int sequentialCutoff) {
+        if (sequentialCutoff < 1) throw new IllegalArgumentException("sequentialCutoff must be >= 1");
+        this.pool = pool;
+        this.sequentialCutoff = sequentialCutoff;
+    }
+
+    // Visitor API: maps every node and combines the results (combiner must be associative)
+    <R> R reduce(FileComponent root, R identity, Function<FileComponent, R> mapper, BinaryOperator<R> combiner) {
+        return pool.invoke(new ReduceTask<>(List.of(root), 0, 1, identity, mapper, combiner));
+    }
+
+    // Visits every node, in no particular order; the visitor must be thread-safe
+    void forEach(FileComponent root, Consumer<FileComponent> visitor) {
+        reduce(root, null, node -> {
+            visitor.accept(node);
+            return null;
+        }, (a, b) -> null);
+    }
+
+    long sum(FileComponent root, ToLongFunction<FileComponent> mapper) {
+        return pool.invoke(new SumTask(List.of(root), 0, 1, mapper));
+    }
+
+    // Sum of the leaves, ignoring any cached folder totals
+    long totalSize(FileComponent root) {
+        return sum(root, node -> node.getChildren().isEmpty() ? node.getSize() : 0);
+    }
+
+    long countNodes(FileComponent root) {
+        return sum(root, node -> 1);
+    }
+
+    // First node found with this name (not necessarily the depth-first first one); stops all tasks once found
+    FileComponent search(FileComponent root, String name) {
+        AtomicReference<FileComponent> found = new AtomicReference<>();
+        pool.invoke(new SearchTask(List.of(root), 0, 1, name, found));
+        return found.get();
+    }
+
+    private boolean worthForking() {
+        return ForkJoinTask.getSurplusQueuedTaskCount() < MAX_SURPLUS_TASKS;
+    }
+
+    private final class ReduceTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<FileComponent> nodes;
+        private final int from;
+        private final int to;
+        private final R identity;
+        private final Function<FileComponent, R> mapper;
+        private final BinaryOperator<R> combiner;
+
+        ReduceTask(List<FileComponent> nodes, int from, int to, R identity,
+                   Function<FileComponent, R> mapper, BinaryOperator<R> combiner) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.identity = identity;
+            this.mapper = mapper;
+            this.combiner = combiner;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from > sequentialCutoff) {
+                int mid = (from + to) >>> 1;
+                ReduceTask<R> left = new ReduceTask<>(nodes, from, mid, identity, mapper, combiner);
+                left.fork();
+                R right = new ReduceTask<>(nodes, mid, to, identity, mapper, combiner).compute();
+                return combiner.apply(left.join(), right);
+            }
+
+            R result = identity;
+            List<ReduceTask<R>> forked = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                FileComponent node = nodes.get(i);
+                result = combiner.apply(result, mapper.apply(node));
+                List<FileComponent> children = node.getChildren();
+                if (children.isEmpty()) continue;
+                if (worthForking()) {
+                    ReduceTask<R> task = new ReduceTask<>(children, 0, children.size(), identity, mapper, combiner);
+                    task.fork();
+                    forked.add(task);
+                } else {
+                    result = combiner.apply(result, reduceSequentially(children));
+                }
+            }
+            for (ReduceTask<R> task : forked) {
+                result = combiner.apply(result, task.join());
+            }
+            return result;
+        }
+
+        private R reduceSequentially(List<FileComponent> children) {
+            R result = identity;
+            Deque<FileComponent> stack = new ArrayDeque<>(children);
+            while (!stack.isEmpty()) {
+                FileComponent node = stack.pop();
+                result = combiner.apply(result, mapper.apply(node));
+                for (FileComponent child : node.getChildren()) stack.push(child);
+            }
+            return result;
+        }
+    }
+
+    // Same shape as ReduceTask, specialised to long so sums don't box per node
+    private final class SumTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<FileComponent> nodes;
+        private final int from;
+        private final int to;
+        private final ToLongFunction<FileComponent> mapper;
+
+        SumTask(List<FileComponent> nodes, int from, int to, ToLongFunction<FileComponent> mapper) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > sequentialCutoff) {
+                int mid = (from + to) >>> 1;
+                SumTask left = new SumTask(nodes, from, mid, mapper);
+                left.fork();
+                long right = new SumTask(nodes, mid, to, mapper).compute();
+                return left.join() + right;
+            }
+
+            long total = 0;
+            List<SumTask> forked = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                FileComponent node = nodes.get(i);
+                total += mapper.applyAsLong(node);
+                List<FileComponent> children = node.getChildren();
+                if (children.isEmpty()) continue;
+                if (worthForking()) {
+                    SumTask task = new SumTask(children, 0, children.size(), mapper);
+                    task.fork();
+                    forked.add(task);
+                } else {
+                    Deque<FileComponent> stack = new ArrayDeque<>(children);
+                    while (!stack.isEmpty()) {
+                        FileComponent next = stack.pop();
+                        total += mapper.applyAsLong(next);
+                        for (FileComponent child : next.getChildren()) stack.push(child);
+                    }
+                }
+            }
+            for (SumTask task : forked) {
+                total += task.join();
+            }
+            return total;
+        }
+    }
+
+    private final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<FileComponent> nodes;
+        private final int from;
+        private final int to;
+        private final String name;
+        private final AtomicReference<FileComponent> found;
+
+        SearchTask(List<FileComponent> nodes, int from, int to, String name, AtomicReference<FileComponent> found) {
+            this.nodes = nodes;
+            this.from = from;
+            this.to = to;
+            this.name = name;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get() != null) return;
+            if (to - from > sequentialCutoff) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new SearchTask(nodes, from, mid, name, found), new SearchTask(nodes, mid, to, name, found));
+                return;
+            }
+
+            List<SearchTask> forked = new ArrayList<>();
+            Deque<FileComponent> stack = new ArrayDeque<>();
+            search:
+            for (int i = from; i < to; i++) {
+                stack.push(nodes.get(i));
+                while (!stack.isEmpty()) {
+                    if (found.get() != null) break search; // someone else already has it
+                    FileComponent node = stack.pop();
+                    if (name.equals(node.getName())) {
+                        found.compareAndSet(null, node);
+                        break search;
+                    }
+                    List<FileComponent> children = node.getChildren();
+                    if (children.isEmpty()) continue;
+                    if (worthForking()) {
+                        SearchTask task = new SearchTask(children, 0, children.size(), name, found);
+                        task.fork();
+                        forked.add(task);
+                    } else {
+                        for (FileComponent child : children) stack.push(child);
+                    }
+                }
+            }
+            // Never return with subtasks outstanding. Once found, the ones still in our own queue are taken
+            // back unrun (newest first, as tryUnfork needs); stolen ones check found and return at once.
+            for (int i = forked.size() - 1; i >= 0; i--) {
+                SearchTask task = forked.get(i);
+                if (found.get() != null && task.tryUnfork()) continue;
+                task.join();
+            }
+        }
+    }
+}
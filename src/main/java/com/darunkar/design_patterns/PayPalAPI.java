@@ -0,0 +1,13 @@
+package com.darunkar.design_patterns;
+
+import java.util.List;
+
+class PayPalAPI {
+    public void sendPayment(String currency, String amount) {
+        System.out.println("PayPal: Payment of " + currency + " " + amount + " processed.");
+    }
+
+    public void sendPayouts(String currency, List<String> amounts) {
+        System.out.println("PayPal: Payout batch of " + amounts.size() + " " + currency + " payments processed.");
+    }
+}
@@ -0,0 +1,29 @@
+package com.darunkar.design_patterns;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class PayPalAdapter implements PaymentProcessor{
+    private final PayPalAPI payPalAPI;
+    PayPalAdapter(PayPalAPI payPalAPI){
+        this.payPalAPI = payPalAPI;
+    }
+
+    // PayPal takes a decimal string, so the amount never goes through a double
+    @Override
+    public void pay(Money amount){
+        payPalAPI.sendPayment(amount.currencyCode(), amount.toDecimalString());
+    }
+
+    // A PayPal payout batch has a single currency, so mixed batches become one call per currency
+    @Override
+    public void payBatch(List<Money> amounts){
+        Map<String, List<String>> byCurrency = new LinkedHashMap<>();
+        for(Money amount : amounts){
+            byCurrency.computeIfAbsent(amount.currencyCode(), c -> new ArrayList<>()).add(amount.toDecimalString());
+        }
+        byCurrency.forEach(payPalAPI::sendPayouts);
+    }
+}
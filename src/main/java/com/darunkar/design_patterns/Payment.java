@@ -0,0 +1,10 @@
+package com.darunkar.design_patterns;
+
+// Product interface, part of the plugin SPI
+public interface Payment {
+    void pay(Money amount);
+
+    // Stateful products are pooled; this clears per-use state before the instance is reused
+    default void reset() {
+    }
+}
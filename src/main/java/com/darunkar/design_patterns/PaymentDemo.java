@@ -1,56 +1,40 @@
 package com.darunkar.design_patterns;
 
-interface PaymentProcessor{
-    void pay(double amount);
-}
-
-class StripeAPI{
-    public void makePayment(int cents){
-        System.out.println("Stripe: Payment of $" + (cents / 100.0) + " processed.");
-    }
-}
-
-class PayPalAPI {
-    public void sendPayment(String currency, double amount) {
-        System.out.println("PayPal: Payment of " + currency + " " + amount + " processed.");
-    }
-}
-
-class StripeAdapter implements  PaymentProcessor{
-
-    private final StripeAPI stripeAPI;
-    StripeAdapter(StripeAPI stripeAPI){
-        this.stripeAPI = stripeAPI;
-    }
-
-    @Override
-    public void pay(double amount) {
-        int cents = (int)amount*100;
-        stripeAPI.makePayment(cents);
-    }
-}
-
-class PayPalAdapter implements PaymentProcessor{
-    private final PayPalAPI payPalAPI;
-    PayPalAdapter(PayPalAPI payPalAPI){
-        this.payPalAPI = payPalAPI;
-    }
-
-    @Override
-    public void pay(double amount){
-        String currency = "INR";
-        payPalAPI.sendPayment(currency, amount);
-    }
-}
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class PaymentDemo {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         // Stripe integration
         PaymentProcessor stripeProcessor = new StripeAdapter(new StripeAPI());
-        stripeProcessor.pay(49.99);
+        stripeProcessor.pay(Money.of("49.99", "USD"));
 
         // PayPal integration
         PaymentProcessor payPalProcessor = new PayPalAdapter(new PayPalAPI());
-        payPalProcessor.pay(75.50);
+        payPalProcessor.pay(Money.of("75.50", "INR"));
+
+        // 1000 concurrent payments settled in batches of up to 100 (or every 5 ms)
+        try(BatchingPaymentProcessor batching = new BatchingPaymentProcessor(stripeProcessor, 100, 5, TimeUnit.MILLISECONDS)){
+            List<CompletableFuture<Void>> settled = new ArrayList<>();
+            ExecutorService checkout = Executors.newFixedThreadPool(8);
+            for(int t = 0; t < 8; t++){
+                checkout.execute(() -> {
+                    for(int i = 0; i < 125; i++){
+                        CompletableFuture<Void> payment = batching.submit(Money.of("19.99", "USD"));
+                        synchronized(settled){
+                            settled.add(payment);
+                        }
+                    }
+                });
+            }
+            checkout.shutdown();
+            checkout.awaitTermination(1, TimeUnit.MINUTES);
+            CompletableFuture.allOf(settled.toArray(CompletableFuture[]::new)).join();
+            System.out.println(batching.payments() + " payments in " + batching.batches() + " Stripe round trips");
+        }
     }
 }
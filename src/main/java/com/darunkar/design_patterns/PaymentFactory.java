@@ -0,0 +1,11 @@
+package com.darunkar.design_patterns;
+
+// Factory interface; public (with Payment and Money) because plugins implement it from their own packages
+public interface PaymentFactory {
+    Payment createPayment();
+
+    // Stateless products are created once and shared; stateful ones are pooled by the registry
+    default boolean isStateless() {
+        return true;
+    }
+}
@@ -0,0 +1,149 @@
+package com.darunkar.design_patterns;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Resolves each factory once: built-in types through an EnumMap, plugins and ad-hoc registrations by
+// name. Payments come back as one shared instance for stateless products or from a small pool for
+// stateful ones, so the payment path never creates a factory or (after warm-up) a product.
+// Plugins are found with ServiceLoader at startup: list PaymentFactory implementations (public, with a
+// public no-arg constructor) in META-INF/services/com.darunkar.design_patterns.PaymentFactory. A plugin
+// that can't be loaded (missing class, failing constructor, duplicate name) is skipped, never fatal.
+class PaymentFactoryRegistry {
+
+    private static final int MAX_POOLED = 64;
+    // the iterator keeps failing if the configuration files can't even be listed; give up after this many in a row
+    private static final int MAX_PLUGIN_ERRORS = 100;
+
+    private final Map<PaymentType, Provider> builtIns = new EnumMap<>(PaymentType.class);
+    private final Map<String, Provider> byName = new ConcurrentHashMap<>();
+
+    PaymentFactoryRegistry() {
+        register(PaymentType.CREDIT_CARD, new CreditCardPaymentFactory());
+        register(PaymentType.PAYPAL, new PayPalPaymentFactory());
+        register(PaymentType.UPI, new UPIPaymentFactory());
+    }
+
+    // Holder idiom, like ConnectionPoolHolder: built-ins plus discovered plugins, loaded on first use
+    static PaymentFactoryRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final PaymentFactoryRegistry INSTANCE = new PaymentFactoryRegistry().loadPlugins();
+    }
+
+    PaymentFactoryRegistry loadPlugins() {
+        return loadPlugins(ServiceLoader.load(PaymentFactory.class));
+    }
+
+    // Iterates by hand: a bad provider-configuration entry throws from hasNext() or next(), and the
+    // iterator moves on to the next entry, whereas stream().toList() would give up on the first one
+    // (and fail the Holder's class initialisation with it)
+    PaymentFactoryRegistry loadPlugins(ServiceLoader<PaymentFactory> plugins) {
+        Iterator<PaymentFactory> iterator = plugins.iterator();
+        int errors = 0;
+        while (errors < MAX_PLUGIN_ERRORS) {
+            PaymentFactory factory;
+            try {
+                if (!iterator.hasNext()) break;
+                factory = iterator.next();
+                errors = 0;
+            } catch (ServiceConfigurationError ex) {
+                errors++;
+                System.out.println("Skipping payment plugin: " + ex.getMessage());
+                continue;
+            }
+            try {
+                register(factory.getClass().getSimpleName().replace("PaymentFactory", ""), factory);
+            } catch (RuntimeException ex) {
+                System.out.println("Skipping payment plugin " + factory.getClass().getName() + ": " + ex.getMessage());
+            }
+        }
+        return this;
+    }
+
+    private void register(PaymentType type, PaymentFactory factory) {
+        Provider provider = new Provider(factory);
+        builtIns.put(type, provider);
+        byName.put(type.name().toLowerCase(Locale.ROOT), provider);
+    }
+
+    // Names are case-insensitive; they are stored lower-cased once here
+    void register(String name, PaymentFactory factory) {
+        if (byName.putIfAbsent(name.toLowerCase(Locale.ROOT), new Provider(factory)) != null) {
+            throw new IllegalArgumentException("Payment type already registered: " + name);
+        }
+    }
+
+    void pay(PaymentType type, Money amount) {
+        builtIn(type).pay(amount);
+    }
+
+    void pay(String name, Money amount) {
+        if (name == null) throw new IllegalArgumentException("Payment type is required");
+        Provider provider = byName.get(name);
+        if (provider == null) provider = byName.get(name.toLowerCase(Locale.ROOT));
+        if (provider == null) throw new IllegalArgumentException("Unknown payment type : " + name);
+        provider.pay(amount);
+    }
+
+    // Shared instance of a stateless product
+    Payment getPayment(PaymentType type) {
+        Provider provider = builtIn(type);
+        if (provider.shared == null) throw new IllegalStateException(type + " payments are pooled, use pay()");
+        return provider.shared;
+    }
+
+    private Provider builtIn(PaymentType type) {
+        if (type == null) throw new IllegalArgumentException("Payment type is required");
+        return builtIns.get(type);
+    }
+
+    int created(String name) {
+        Provider provider = byName.get(name.toLowerCase(Locale.ROOT));
+        return provider == null ? 0 : provider.created.get();
+    }
+
+    private static final class Provider {
+        final PaymentFactory factory;
+        final Payment shared;
+        final ConcurrentLinkedQueue<Payment> pool = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pooled = new AtomicInteger();
+        final AtomicInteger created = new AtomicInteger();
+
+        Provider(PaymentFactory factory) {
+            this.factory = factory;
+            this.shared = factory.isStateless() ? create() : null;
+        }
+
+        private Payment create() {
+            created.incrementAndGet();
+            return factory.createPayment();
+        }
+
+        void pay(Money amount) {
+            if (shared != null) {
+                shared.pay(amount);
+                return;
+            }
+            Payment payment = pool.poll();
+            if (payment != null) pooled.decrementAndGet();
+            else payment = create();
+            try {
+                payment.pay(amount);
+            } finally {
+                payment.reset();
+                if (pooled.incrementAndGet() <= MAX_POOLED) pool.offer(payment);
+                else pooled.decrementAndGet(); // pool is full, let this one go
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.darunkar.design_patterns;
+
+import java.util.concurrent.CompletableFuture;
+
+//Implementor - gateway bridge
+// Asynchronous: the future completes when the gateway answers, no thread waits for it in the meantime
+interface PaymentGateway{
+    CompletableFuture<PaymentResult> processPayment(Money amount);
+
+    // Same payment tagged with a caller-chosen key, so the gateway can recognise it again (retries,
+    // cancelPayment); gateways without idempotency support ignore the key
+    default CompletableFuture<PaymentResult> processPayment(Money amount, String idempotencyKey){
+        return processPayment(amount);
+    }
+
+    // Cancels an approved payment that turned out not to be needed; false if it couldn't be voided
+    default CompletableFuture<Boolean> voidPayment(String transactionId){
+        return CompletableFuture.completedFuture(false);
+    }
+
+    // Makes sure nothing stays charged for this key, voiding the payment if the gateway did take it. True once
+    // the gateway confirms that; false if it can't tell, and then the payment must not be retried elsewhere
+    default CompletableFuture<Boolean> cancelPayment(String idempotencyKey){
+        return CompletableFuture.completedFuture(false);
+    }
+}
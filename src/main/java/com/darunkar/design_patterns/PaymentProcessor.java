@@ -0,0 +1,14 @@
+package com.darunkar.design_patterns;
+
+import java.util.List;
+
+interface PaymentProcessor{
+    void pay(Money amount);
+
+    // Settles several payments in one provider round trip where the provider supports it
+    default void payBatch(List<Money> amounts){
+        for(Money amount : amounts){
+            pay(amount);
+        }
+    }
+}
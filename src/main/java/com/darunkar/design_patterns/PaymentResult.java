@@ -0,0 +1,29 @@
+package com.darunkar.design_patterns;
+
+// DECLINED is the gateway's answer about the payment; GATEWAY_ERROR means no answer (5xx, timeout), so the
+// payment may or may not have gone through; UNREACHABLE means the request never got to the gateway
+// (connection refused, circuit open), so nothing can have been charged
+record PaymentResult(String gateway, Money amount, Status status, String transactionId, String message){
+
+    enum Status { APPROVED, DECLINED, GATEWAY_ERROR, UNREACHABLE }
+
+    static PaymentResult approved(String gateway, Money amount, String transactionId){
+        return new PaymentResult(gateway, amount, Status.APPROVED, transactionId, "approved");
+    }
+
+    static PaymentResult declined(String gateway, Money amount, String message){
+        return new PaymentResult(gateway, amount, Status.DECLINED, null, message);
+    }
+
+    static PaymentResult gatewayError(String gateway, Money amount, String message){
+        return new PaymentResult(gateway, amount, Status.GATEWAY_ERROR, null, message);
+    }
+
+    static PaymentResult unreachable(String gateway, Money amount, String message){
+        return new PaymentResult(gateway, amount, Status.UNREACHABLE, null, message);
+    }
+
+    boolean success(){
+        return status == Status.APPROVED;
+    }
+}
@@ -0,0 +1,5 @@
+package com.darunkar.design_patterns;
+
+enum PaymentType {
+    CREDIT_CARD, PAYPAL, UPI
+}
@@ -0,0 +1,17 @@
+package com.darunkar.design_patterns;
+
+import java.util.Set;
+
+enum Permission{
+    READ_PRODUCT,
+    WRITE_PRODUCT,
+    DELETE_PRODUCT;
+
+    final long mask = 1L << ordinal();
+
+    static long maskOf(Set<Permission> permissions){
+        long mask = 0;
+        for(Permission permission : permissions) mask |= permission.mask;
+        return mask;
+    }
+}
@@ -0,0 +1,35 @@
+package com.darunkar.design_patterns;
+
+import java.util.List;
+
+// Instrumentation hooks for BoundedConnectionPool; NOOP until a tracker is added
+interface PoolMetricsTracker {
+    PoolMetricsTracker NOOP = new PoolMetricsTracker() {};
+
+    default void recordBorrowWait(long nanos) {}
+
+    default void recordConnectionCreation(long nanos) {}
+
+    default void recordLeak(long heldNanos) {}
+
+    // Fans every event out to a snapshot of the given trackers
+    static PoolMetricsTracker composite(List<PoolMetricsTracker> trackers) {
+        PoolMetricsTracker[] all = trackers.toArray(new PoolMetricsTracker[0]);
+        return new PoolMetricsTracker() {
+            @Override
+            public void recordBorrowWait(long nanos) {
+                for (PoolMetricsTracker tracker : all) tracker.recordBorrowWait(nanos);
+            }
+
+            @Override
+            public void recordConnectionCreation(long nanos) {
+                for (PoolMetricsTracker tracker : all) tracker.recordConnectionCreation(nanos);
+            }
+
+            @Override
+            public void recordLeak(long heldNanos) {
+                for (PoolMetricsTracker tracker : all) tracker.recordLeak(heldNanos);
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.darunkar.design_patterns;
+
+// Borrowed connection; close() returns it to the pool (use with try-with-resources)
+class PooledConnection implements AutoCloseable {
+    private final BoundedConnectionPool pool;
+    private final BoundedConnectionPool.Entry entry;
+    private boolean closed;
+
+    PooledConnection(BoundedConnectionPool pool, BoundedConnectionPool.Entry entry) {
+        this.pool = pool;
+        this.entry = entry;
+    }
+
+    public SimpleConnection getConnection() {
+        if (closed) throw new IllegalStateException("Connection already returned to the pool");
+        return entry.connection;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            pool.release(entry);
+        }
+    }
+}
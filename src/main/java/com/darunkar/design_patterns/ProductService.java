@@ -0,0 +1,19 @@
+package com.darunkar.design_patterns;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+interface ProductService{
+    String getProductDetails(String productId);
+
+    // Bulk lookup keyed by productId, in request order; implementations backed by a DB should override
+    // this with a single query instead of one call per id
+    default Map<String, String> getProductDetails(Collection<String> productIds) {
+        Map<String, String> details = new LinkedHashMap<>();
+        for(String productId : productIds){
+            details.put(productId, getProductDetails(productId));
+        }
+        return details;
+    }
+}
@@ -0,0 +1,26 @@
+package com.darunkar.design_patterns;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class ProductServiceImpl implements ProductService{
+
+    @Override
+    public String getProductDetails(String productId) {
+//        db call to get product details
+        System.out.println("Products details for productId : " + productId);
+        return "Product details for " + productId;
+    }
+
+    @Override
+    public Map<String, String> getProductDetails(Collection<String> productIds) {
+//        one db query (WHERE id IN (...)) for the whole batch
+        System.out.println("Products details for " + productIds.size() + " productIds");
+        Map<String, String> details = new LinkedHashMap<>();
+        for(String productId : productIds){
+            details.put(productId, "Product details for " + productId);
+        }
+        return details;
+    }
+}
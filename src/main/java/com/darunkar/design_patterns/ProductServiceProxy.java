@@ -0,0 +1,41 @@
+package com.darunkar.design_patterns;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Permissions are resolved once here, so each call is a single bit test plus a queue offer for the audit trail
+class ProductServiceProxy implements ProductService{
+
+    private final ProductService productService;
+    private final String userRole;
+    private final long permissions;
+    private final AuditLogger auditLogger;
+
+    public ProductServiceProxy(ProductService productService, String userRole) {
+        this(productService, userRole, RolePermissionPolicy.DEFAULT, AsyncAuditLogger.console());
+    }
+
+    public ProductServiceProxy(ProductService productService, String userRole, AuthorizationPolicy policy, AuditLogger auditLogger) {
+        this.productService = productService;
+        this.userRole = userRole;
+        this.permissions = policy.permissionsFor(userRole);
+        this.auditLogger = auditLogger;
+    }
+
+    @Override
+    public String getProductDetails(String productId) {
+        boolean granted = (permissions & Permission.READ_PRODUCT.mask) != 0;
+        auditLogger.record(userRole, productId, granted);
+        return granted ? productService.getProductDetails(productId) : null;
+    }
+
+    // One check for the whole batch; denied batches return no details
+    @Override
+    public Map<String, String> getProductDetails(Collection<String> productIds) {
+        boolean granted = (permissions & Permission.READ_PRODUCT.mask) != 0;
+        for(String productId : productIds){
+            auditLogger.record(userRole, productId, granted);
+        }
+        return granted ? productService.getProductDetails(productIds) : Map.of();
+    }
+}
@@ -1,48 +1,70 @@
 package com.darunkar.design_patterns;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-interface ProductService{
-    void getProductDetails(String productId);
-}
-
-class ProductServiceImpl implements ProductService{
-
-    @Override
-    public void getProductDetails(String productId) {
-//        db call to get product details
-        System.out.println("Products details for productId : " + productId);
-    }
-}
-
-class ProductServiceProxy implements ProductService{
-
-    private final ProductService productService;
-    private final String userRole;
-
-    public ProductServiceProxy(ProductService productService, String userRole) {
-        this.productService = productService;
-        this.userRole = userRole;
-    }
-
-    @Override
-    public void getProductDetails(String productId) {
-
-        if("ADMIN".equalsIgnoreCase(userRole)){
-            System.out.println("Access Granted");
-            productService.getProductDetails(productId);
-        }else{
-            System.out.println("Access Denied");
-        }
-    }
-}
 public class ProxyDemo {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
 
         ProductServiceProxy adminProxy = new ProductServiceProxy(new ProductServiceImpl(), "ADMIN");
         ProductServiceProxy userProxy = new ProductServiceProxy(new ProductServiceImpl(), "USER");
 
         adminProxy.getProductDetails("abc");
         userProxy.getProductDetails("abc");
+
+        // Hot-product read load: 8 threads x 10k reads over 20 products, through the caching proxy
+        AtomicInteger dbCalls = new AtomicInteger();
+        ProductService database = productId -> {
+            dbCalls.incrementAndGet();
+            return "Product details for " + productId;
+        };
+        CachingProductServiceProxy cachingProxy = new CachingProductServiceProxy(database, 1000, 60, 30, TimeUnit.SECONDS);
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        for(int t = 0; t < 8; t++){
+            clients.execute(() -> {
+                for(int i = 0; i < 10_000; i++){
+                    cachingProxy.getProductDetails("product-" + (i % 20));
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.println("80000 reads, " + dbCalls.get() + " DB calls, " + cachingProxy.stats());
+
+        // Product listing page: 200 ids in one bulk call, then again with 150 of them already cached
+        AtomicInteger bulkCalls = new AtomicInteger();
+        ProductService bulkDatabase = new ProductServiceImpl(){
+            @Override
+            public Map<String, String> getProductDetails(Collection<String> productIds) {
+                bulkCalls.incrementAndGet();
+                return super.getProductDetails(productIds);
+            }
+        };
+        CachingProductServiceProxy pageCache = new CachingProductServiceProxy(bulkDatabase, 1000, 60, 30, TimeUnit.SECONDS);
+        ProductServiceProxy pageProxy = new ProductServiceProxy(pageCache, "ADMIN", RolePermissionPolicy.DEFAULT, AuditLogger.NOOP);
+        List<String> page = new ArrayList<>();
+        for(int i = 0; i < 200; i++) page.add("product-" + i);
+        pageProxy.getProductDetails(page.subList(50, 200));
+        System.out.println("Page of " + pageProxy.getProductDetails(page).size() + " products, " + bulkCalls.get() + " backend calls");
+
+        // 200 concurrent single-id lookups merged by a 5 ms micro-batching window
+        bulkCalls.set(0);
+        try(MicroBatchingProductService batcher = new MicroBatchingProductService(bulkDatabase, 5, TimeUnit.MILLISECONDS, 100)){
+            ExecutorService callers = Executors.newFixedThreadPool(50);
+            for(String productId : page){
+                callers.execute(() -> batcher.getProductDetails(productId));
+            }
+            callers.shutdown();
+            callers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+        System.out.println("200 single lookups, " + bulkCalls.get() + " backend calls");
     }
 }
@@ -0,0 +1,28 @@
+package com.darunkar.design_patterns;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Role names are case-insensitive; resolved masks are cached per role string
+class RolePermissionPolicy implements AuthorizationPolicy{
+
+    static final RolePermissionPolicy DEFAULT = new RolePermissionPolicy(Map.of(
+            "ADMIN", EnumSet.allOf(Permission.class)));
+
+    private final Map<String, Long> grants = new HashMap<>();
+    private final Map<String, Long> resolved = new ConcurrentHashMap<>();
+
+    RolePermissionPolicy(Map<String, ? extends Set<Permission>> grants){
+        grants.forEach((role, permissions) -> this.grants.put(role.toUpperCase(Locale.ROOT), Permission.maskOf(permissions)));
+    }
+
+    @Override
+    public long permissionsFor(String role){
+        if(role == null) return 0;
+        return resolved.computeIfAbsent(role, r -> grants.getOrDefault(r.toUpperCase(Locale.ROOT), 0L));
+    }
+}
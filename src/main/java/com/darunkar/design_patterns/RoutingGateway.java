@@ -0,0 +1,529 @@
+package com.darunkar.design_patterns;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// PaymentGateway that spreads payments over several gateways. Each call goes to the gateway with the
+// lowest cost = EWMA latency x (in-flight + 1) x error penalty ("peak EWMA"), so a gateway that slows
+// down or starts failing loses traffic within a few calls. Per-gateway circuit breakers take a broken
+// gateway out entirely.
+// Failover never risks a double charge: a payment carries one idempotency key (the caller's, or a fresh
+// one) to every gateway, and every gateway that answered GATEWAY_ERROR (timeout, 5xx: it may have charged)
+// must confirm cancelPayment for that key before the payment moves to another gateway or is reported
+// UNREACHABLE. Without that confirmation the GATEWAY_ERROR is returned. Gateways that were never reached
+// (UNREACHABLE) need no cancel. A retry under a key the router still remembers goes back to the gateway
+// that answered it, or that may hold a charge for it, and cancelPayment(key) reaches every gateway the
+// key was sent to.
+// Optional hedging: when the first gateway hasn't answered within its own p99, the payment is also sent
+// to the next best one. The first approval wins; a second approval is voided and a GATEWAY_ERROR from the
+// losing side is cancelled. So hedging is only safe with gateways that support voidPayment and
+// cancelPayment - it is off by default. Voids and cancels that fail once the payment has been answered
+// are counted and logged, since that money has to be returned by hand.
+class RoutingGateway implements PaymentGateway, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutingGateway.class);
+
+    private static final double ALPHA = 0.2;              // EWMA weight of the newest sample
+    private static final int FAILURES_TO_OPEN = 5;        // consecutive gateway errors that trip a breaker
+    private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final int P99_MIN_SAMPLES = 50;        // no hedging until a gateway has this much history
+    private static final int REMEMBERED_KEYS = 10_000;    // idempotency keys whose routes are kept for retries
+
+    private final List<Route> routes = new ArrayList<>();
+    private final boolean hedging;
+    private final ScheduledExecutorService hedgeTimer;
+
+    private final LongAdder failovers = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder voids = new LongAdder();
+    private final LongAdder failedVoids = new LongAdder();
+
+    // guarded by itself; the oldest keys are forgotten first
+    private final Map<String, KeyState> keys = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, KeyState> eldest) {
+            return size() > REMEMBERED_KEYS;
+        }
+    };
+
+    RoutingGateway(Map<String, ? extends PaymentGateway> gateways) {
+        this(gateways, false);
+    }
+
+    RoutingGateway(Map<String, ? extends PaymentGateway> gateways, boolean hedging) {
+        if (gateways.isEmpty()) throw new IllegalArgumentException("At least one gateway is required");
+        gateways.forEach((name, gateway) -> routes.add(new Route(name, gateway)));
+        this.hedging = hedging;
+        this.hedgeTimer = hedging ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-hedge-timer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> processPayment(Money amount) {
+        return processPayment(amount, UUID.randomUUID().toString());
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> processPayment(Money amount, String idempotencyKey) {
+        String key = idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString();
+        RoutedPayment payment = new RoutedPayment(amount, key, stateOf(key));
+        payment.start();
+        return payment.result;
+    }
+
+    // Cancels on every gateway the key was sent to; true only if all of them confirm. A key the router
+    // no longer remembers is cancelled on every gateway.
+    @Override
+    public CompletableFuture<Boolean> cancelPayment(String idempotencyKey) {
+        KeyState state;
+        synchronized (keys) {
+            state = keys.get(idempotencyKey);
+        }
+        Set<Route> targets;
+        if (state == null) {
+            targets = new HashSet<>(routes);
+        } else {
+            synchronized (state) {
+                targets = new HashSet<>(state.sentTo);
+            }
+        }
+        return cancelAll(targets, idempotencyKey).thenApply(cancelled -> {
+            if (cancelled && state != null) {
+                synchronized (state) {
+                    state.ambiguous.removeAll(targets);
+                    state.answeredBy = null;
+                }
+            }
+            return cancelled;
+        });
+    }
+
+    private KeyState stateOf(String key) {
+        synchronized (keys) {
+            return keys.computeIfAbsent(key, k -> new KeyState());
+        }
+    }
+
+    // What the router knows about one idempotency key across calls; guarded by this
+    private static final class KeyState {
+        final Set<Route> sentTo = new HashSet<>();
+        final Set<Route> ambiguous = new HashSet<>(); // answered GATEWAY_ERROR, no confirmed cancel since
+        Route answeredBy;                             // gave the approval or decline the caller got
+    }
+
+    // A route picked for one call, with the breaker generation the call was admitted in
+    private record Admission(Route route, long generation) {}
+
+    // Cheapest route whose breaker lets a call through, or null
+    private Admission choose(Set<Route> excluded) {
+        Set<Route> skipped = new HashSet<>(excluded);
+        while (true) {
+            Route best = null;
+            double bestCost = Double.MAX_VALUE;
+            for (Route route : routes) {
+                if (skipped.contains(route) || !route.breaker.isCallPermitted()) continue;
+                double cost = route.cost();
+                if (cost < bestCost) {
+                    best = route;
+                    bestCost = cost;
+                }
+            }
+            if (best == null) return null;
+            long generation = best.breaker.tryAcquire();
+            if (generation != CircuitBreaker.NOT_PERMITTED) return new Admission(best, generation);
+            skipped.add(best); // lost the half-open trial slot to another caller
+        }
+    }
+
+    // Every attempt goes through here so the route's stats and breaker see it
+    private CompletableFuture<PaymentResult> call(Admission admission, Money amount, String idempotencyKey) {
+        Route route = admission.route();
+        route.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        CompletableFuture<PaymentResult> attempt;
+        try {
+            attempt = route.gateway.processPayment(amount, idempotencyKey);
+        } catch (RuntimeException ex) {
+            attempt = CompletableFuture.completedFuture(PaymentResult.gatewayError(route.name, amount, ex.toString()));
+        }
+        return attempt
+                .exceptionally(ex -> PaymentResult.gatewayError(route.name, amount, ex.toString()))
+                .thenApply(result -> {
+                    route.inFlight.decrementAndGet();
+                    boolean error = result.status() == PaymentResult.Status.GATEWAY_ERROR
+                            || result.status() == PaymentResult.Status.UNREACHABLE;
+                    route.record(System.nanoTime() - start, error);
+                    if (error) route.breaker.onFailure(admission.generation());
+                    else route.breaker.onSuccess(admission.generation());
+                    return result;
+                });
+    }
+
+    // One payment across its attempts (first choice, hedge, failover); state is guarded by this, and the
+    // KeyState lock is only ever taken inside it
+    private final class RoutedPayment {
+        final Money amount;
+        final String idempotencyKey;
+        final KeyState state;
+        final CompletableFuture<PaymentResult> result = new CompletableFuture<>();
+        final Set<Route> tried = new HashSet<>();
+        int outstanding;
+        boolean cancelling; // waiting for gateways to confirm they kept nothing before moving on
+        PaymentResult lastError;
+        ScheduledFuture<?> hedgeTask;
+
+        RoutedPayment(Money amount, String idempotencyKey, KeyState state) {
+            this.amount = amount;
+            this.idempotencyKey = idempotencyKey;
+            this.state = state;
+        }
+
+        synchronized void start() {
+            Admission first = retryRoute();
+            boolean mayBeCharged;
+            synchronized (state) {
+                mayBeCharged = !state.ambiguous.isEmpty();
+            }
+            if (first == null && !mayBeCharged) first = choose(tried);
+            if (first == null) {
+                // nothing to send to, or an earlier attempt's gateway that may hold a charge is unavailable
+                settle(PaymentResult.unreachable("routing", amount, "no gateway available"));
+                return;
+            }
+            launch(first);
+            long p99 = first.route().p99Nanos();
+            if (hedging && p99 > 0 && !result.isDone()) {
+                hedgeTask = hedgeTimer.schedule(this::hedge, p99, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        // A retry goes back to the gateway that answered the key, else to one that may have charged under it
+        private Admission retryRoute() {
+            List<Route> candidates = new ArrayList<>();
+            synchronized (state) {
+                if (state.answeredBy != null) candidates.add(state.answeredBy);
+                candidates.addAll(state.ambiguous);
+            }
+            for (Route route : candidates) {
+                long generation = route.breaker.tryAcquire();
+                if (generation != CircuitBreaker.NOT_PERMITTED) return new Admission(route, generation);
+            }
+            return null;
+        }
+
+        private synchronized void launch(Admission admission) {
+            Route route = admission.route();
+            tried.add(route);
+            synchronized (state) {
+                state.sentTo.add(route);
+            }
+            outstanding++;
+            call(admission, amount, idempotencyKey).thenAccept(r -> onResult(route, r));
+        }
+
+        private synchronized void hedge() {
+            if (result.isDone() || outstanding == 0 || cancelling) return;
+            Admission backup = choose(tried);
+            if (backup == null) return;
+            hedges.increment();
+            launch(backup);
+        }
+
+        private void onResult(Route route, PaymentResult attempt) {
+            boolean duplicate = false;
+            Set<Route> leftovers = Set.of();
+            synchronized (this) {
+                outstanding--;
+                switch (attempt.status()) {
+                    case APPROVED, DECLINED -> {
+                        if (result.complete(attempt)) {
+                            synchronized (state) {
+                                state.answeredBy = route;
+                                state.ambiguous.remove(route); // its answer is known now; never cancel it by key
+                            }
+                        } else {
+                            duplicate = attempt.status() == PaymentResult.Status.APPROVED;
+                        }
+                    }
+                    case GATEWAY_ERROR -> {
+                        synchronized (state) {
+                            state.ambiguous.add(route);
+                        }
+                        lastError = attempt;
+                    }
+                    case UNREACHABLE -> {
+                        // never got to the gateway: nothing to cancel there
+                    }
+                }
+                if (!result.isDone() && outstanding == 0 && !cancelling) settle(attempt);
+                if (result.isDone() && result.join().status() != PaymentResult.Status.GATEWAY_ERROR) {
+                    leftovers = takeAmbiguous();
+                }
+                if ((result.isDone() || cancelling) && hedgeTask != null) hedgeTask.cancel(false);
+            }
+            if (duplicate) {
+                // the hedge lost the race after charging as well: cancel the duplicate
+                voidDuplicate(route, attempt);
+            }
+            for (Route leftover : leftovers) cancelAfterAnswer(leftover);
+        }
+
+        // Every attempt has answered without a result: move on once no gateway may still hold a charge.
+        // caller holds the lock
+        private void settle(PaymentResult last) {
+            Set<Route> mayHaveCharged;
+            synchronized (state) {
+                mayHaveCharged = new HashSet<>(state.ambiguous);
+            }
+            if (mayHaveCharged.isEmpty()) {
+                failOver(last);
+                return;
+            }
+            cancelling = true;
+            cancelAll(mayHaveCharged, idempotencyKey).thenAccept(cancelled -> {
+                synchronized (this) {
+                    cancelling = false;
+                    if (result.isDone()) return;
+                    if (cancelled) {
+                        synchronized (state) {
+                            state.ambiguous.removeAll(mayHaveCharged);
+                        }
+                        voids.add(mayHaveCharged.size());
+                        failOver(last);
+                    } else {
+                        // may have been charged; retrying elsewhere could charge twice
+                        result.complete(lastError != null ? lastError : PaymentResult.gatewayError("routing", amount,
+                                "an earlier attempt with this idempotency key may have been charged"));
+                    }
+                }
+            });
+        }
+
+        // caller holds the lock
+        private void failOver(PaymentResult attempt) {
+            Admission next = choose(tried);
+            if (next != null) {
+                failovers.increment();
+                launch(next);
+            } else {
+                result.complete(attempt);
+            }
+        }
+
+        // Gateways that answered GATEWAY_ERROR after the payment was approved or declined elsewhere
+        // caller holds the lock
+        private Set<Route> takeAmbiguous() {
+            synchronized (state) {
+                if (state.ambiguous.isEmpty()) return Set.of();
+                Set<Route> taken = new HashSet<>(state.ambiguous);
+                state.ambiguous.clear();
+                return taken;
+            }
+        }
+
+        private void cancelAfterAnswer(Route route) {
+            cancelOn(route, idempotencyKey).thenAccept(cancelled -> {
+                if (cancelled) {
+                    voids.increment();
+                } else {
+                    failedVoids.increment();
+                    log.error("Could not cancel payment {} of {} on {} after it was answered elsewhere; check and refund it manually",
+                            idempotencyKey, amount, route.name);
+                }
+            });
+        }
+    }
+
+    private static CompletableFuture<Boolean> cancelAll(Set<Route> targets, String idempotencyKey) {
+        CompletableFuture<Boolean> all = CompletableFuture.completedFuture(true);
+        for (Route route : targets) {
+            all = all.thenCombine(cancelOn(route, idempotencyKey), Boolean::logicalAnd);
+        }
+        return all;
+    }
+
+    private static CompletableFuture<Boolean> cancelOn(Route route, String idempotencyKey) {
+        try {
+            return route.gateway.cancelPayment(idempotencyKey)
+                    .thenApply(Boolean.TRUE::equals)
+                    .exceptionally(ex -> false);
+        } catch (RuntimeException ex) {
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    private void voidDuplicate(Route route, PaymentResult attempt) {
+        CompletableFuture<Boolean> voided;
+        try {
+            voided = route.gateway.voidPayment(attempt.transactionId());
+        } catch (RuntimeException ex) {
+            voided = CompletableFuture.failedFuture(ex);
+        }
+        voided.whenComplete((ok, ex) -> {
+            if (ex == null && Boolean.TRUE.equals(ok)) {
+                voids.increment();
+            } else {
+                failedVoids.increment();
+                log.error("Could not void duplicate payment {} of {} on {}; refund it manually: {}",
+                        attempt.transactionId(), attempt.amount(), route.name, ex != null ? ex.toString() : "declined by gateway");
+            }
+        });
+    }
+
+    private static final class Route {
+        final String name;
+        final PaymentGateway gateway;
+        final CircuitBreaker breaker = new CircuitBreaker();
+        final AtomicInteger inFlight = new AtomicInteger();
+
+        // guarded by this; the latency guess before the first sample makes in-flight calls count from the start
+        private double ewmaLatencyNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        private double ewmaErrorRate;
+        private final long[] recentLatencies = new long[256];
+        private int samples;
+        private volatile long p99Nanos;
+
+        Route(String name, PaymentGateway gateway) {
+            this.name = name;
+            this.gateway = gateway;
+        }
+
+        synchronized double cost() {
+            return ewmaLatencyNanos * (inFlight.get() + 1) * (1 + 10 * ewmaErrorRate);
+        }
+
+        synchronized void record(long latencyNanos, boolean error) {
+            ewmaLatencyNanos = samples == 0 ? latencyNanos : ALPHA * latencyNanos + (1 - ALPHA) * ewmaLatencyNanos;
+            ewmaErrorRate = ALPHA * (error ? 1 : 0) + (1 - ALPHA) * ewmaErrorRate;
+            recentLatencies[samples++ % recentLatencies.length] = latencyNanos;
+            if (samples >= P99_MIN_SAMPLES && samples % 32 == 0) {
+                long[] sorted = Arrays.copyOf(recentLatencies, Math.min(samples, recentLatencies.length));
+                Arrays.sort(sorted);
+                p99Nanos = sorted[(int) (sorted.length * 0.99)];
+            }
+        }
+
+        long p99Nanos() {
+            return p99Nanos;
+        }
+
+        synchronized RouteStats stats() {
+            return new RouteStats(name, ewmaLatencyNanos / 1e6, ewmaErrorRate, p99Nanos / 1e6, inFlight.get(), breaker.state());
+        }
+    }
+
+    // CLOSED -> OPEN after FAILURES_TO_OPEN consecutive gateway errors; after OPEN_NANOS a single trial
+    // call is let through (HALF_OPEN) and its outcome closes or re-opens the breaker.
+    // Every state change starts a new generation, and outcomes are only counted for calls admitted in the
+    // current one: a slow call let through before the breaker opened can't close it when it finally returns.
+    static final class CircuitBreaker {
+        enum State { CLOSED, OPEN, HALF_OPEN }
+
+        static final long NOT_PERMITTED = -1;
+
+        private State state = State.CLOSED;
+        private long generation;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean trialInFlight;
+
+        synchronized boolean isCallPermitted() {
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> System.nanoTime() - openedAt >= OPEN_NANOS;
+                case HALF_OPEN -> !trialInFlight;
+            };
+        }
+
+        // The generation to report the outcome against, or NOT_PERMITTED
+        synchronized long tryAcquire() {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= OPEN_NANOS) {
+                transition(State.HALF_OPEN);
+            }
+            if (state == State.CLOSED) return generation;
+            if (state == State.HALF_OPEN && !trialInFlight) {
+                trialInFlight = true;
+                return generation;
+            }
+            return NOT_PERMITTED;
+        }
+
+        synchronized void onSuccess(long admittedIn) {
+            if (admittedIn != generation) return;
+            consecutiveFailures = 0;
+            if (state != State.CLOSED) transition(State.CLOSED);
+        }
+
+        synchronized void onFailure(long admittedIn) {
+            if (admittedIn != generation) return;
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= FAILURES_TO_OPEN) {
+                transition(State.OPEN);
+                openedAt = System.nanoTime();
+            }
+        }
+
+        private void transition(State next) {
+            state = next;
+            generation++;
+            consecutiveFailures = 0;
+            trialInFlight = false;
+        }
+
+        synchronized State state() {
+            return state;
+        }
+    }
+
+    record RouteStats(String name, double ewmaLatencyMillis, double errorRate, double p99Millis, int inFlight,
+                      CircuitBreaker.State breaker) {}
+
+    List<RouteStats> stats() {
+        List<RouteStats> stats = new ArrayList<>();
+        for (Route route : routes) stats.add(route.stats());
+        return stats;
+    }
+
+    long failovers() {
+        return failovers.sum();
+    }
+
+    long hedges() {
+        return hedges.sum();
+    }
+
+    // Payments successfully voided or cancelled (duplicates from hedging, charges ruled out before a failover)
+    long voids() {
+        return voids.sum();
+    }
+
+    // Duplicate approvals that could not be voided, or errors that could not be cancelled after the payment
+    // was answered elsewhere; these need a manual refund
+    long failedVoids() {
+        return failedVoids.sum();
+    }
+
+    @Override
+    public void close() {
+        if (hedgeTimer != null) hedgeTimer.shutdownNow();
+    }
+}
@@ -0,0 +1,19 @@
+package com.darunkar.design_patterns;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+// Dummy connection object to simulate a resource (serializable to test readResolve)
+class SimpleConnection implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final String id;
+
+    public SimpleConnection() {
+        this.id = "conn-" + System.identityHashCode(this) + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String getId() { return id; }
+
+    @Override
+    public String toString() { return "SimpleConnection{" + id + "}"; }
+}
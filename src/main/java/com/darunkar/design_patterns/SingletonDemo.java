@@ -1,23 +1,30 @@
 package com.darunkar.design_patterns;/*
  01_SingletonDemo.java
- Step-by-step Singleton implementations + tests
+ Step-by-step Singleton implementations + tests. The types live in their own files so the
+ JMH benchmarks and ConnectionPoolMetrics can use them:
  - ConnectionPoolDCL: double-checked locking (lazy init) + readResolve
  - ConnectionPoolEnum: enum-based singleton (recommended)
+ - ConnectionPoolHolder: initialization-on-demand holder idiom (lazy, no explicit locking)
  - SimpleConnection: dummy serializable resource
- - SingletonDemo (public): contains main() that runs three tests:
+ - BoundedConnectionPool: min/max sized pool of SimpleConnections shared by both singletons
+     (thread-local affinity + CAS bag fast path, sliced-polling wait with hand-off, idle eviction)
+ - PooledConnection: borrowed handle, close() gives the connection back to the pool
+ - PoolMetricsTracker: instrumentation hooks (borrow wait, creation time, leaks), see ConnectionPoolMetrics
+ - SingletonDemo (public): contains main() that runs four tests:
      1) concurrencyTest: concurrent threads call getInstance()
      2) serializationTest: serialize/deserialize to verify singleton after serialization
      3) reflectionTest: attempt to create another instance via reflection
+     4) poolTest: many threads borrow/return connections through the singletons
 
  How to run:
- 1. Copy this file into your workspace as 01_SingletonDemo.java
- 2. Compile: javac 01_SingletonDemo.java
- 3. Run: java SingletonDemo
+ 1. Compile the package: mvn compile
+ 2. Run: java -cp target/classes com.darunkar.design_patterns.SingletonDemo
 
  Expected behaviour:
  - Concurrency test should report 1 unique instance for both DCL and Enum
  - Serialization test: with readResolve in DCL, deserialized object equals original
  - Reflection test: reflection should be prevented for enum; for DCL the constructor guard prevents reflective creation after the singleton exists
+ - Pool test: never more than maxSize distinct connections, no borrow times out
 */
 
 import java.io.*;
@@ -25,68 +32,6 @@ import java.lang.reflect.Constructor;
 import java.util.*;
 import java.util.concurrent.*;
 
-// Dummy connection object to simulate a resource (serializable to test readResolve)
-class SimpleConnection implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private final String id;
-
-    public SimpleConnection() {
-        this.id = "conn-" + System.identityHashCode(this) + "-" + UUID.randomUUID().toString().substring(0, 8);
-    }
-
-    public String getId() { return id; }
-
-    @Override
-    public String toString() { return "SimpleConnection{" + id + "}"; }
-}
-
-// Double-checked locking singleton (lazy init)
-class ConnectionPoolDCL implements Serializable {
-    private static final long serialVersionUID = 1L;
-    private static volatile ConnectionPoolDCL instance;
-    private final SimpleConnection connection;
-
-    private ConnectionPoolDCL() {
-        // Guard against reflection: prevent creating a second instance after instance already exists
-        if (instance != null) {
-            throw new IllegalStateException("Singleton already created. Use getInstance().");
-        }
-        // simulate expensive init
-        this.connection = new SimpleConnection();
-    }
-
-    public static ConnectionPoolDCL getInstance() {
-        if (instance == null) {
-            synchronized (ConnectionPoolDCL.class) {
-                if (instance == null) {
-                    instance = new ConnectionPoolDCL();
-                }
-            }
-        }
-        return instance;
-    }
-
-    public SimpleConnection getConnection() { return connection; }
-
-    // fix for serialization: ensure deserialized object resolves to the same singleton instance
-    private Object readResolve() {
-        return getInstance();
-    }
-}
-
-// Enum-based singleton (most robust: protects against serialization and reflection)
-enum ConnectionPoolEnum {
-    INSTANCE;
-
-    private final SimpleConnection connection;
-
-    ConnectionPoolEnum() {
-        this.connection = new SimpleConnection();
-    }
-
-    public SimpleConnection getConnection() { return connection; }
-}
-
 // Driver / tests
 public class SingletonDemo {
 
@@ -99,6 +44,9 @@ public class SingletonDemo {
 
         System.out.println("\n== Reflection test ==");
         reflectionTest();
+
+        System.out.println("\n== Pool test ==");
+        poolTest();
     }
 
     // Spawn threads to call getInstance() concurrently and collect unique identityHashCodes
@@ -142,8 +90,8 @@ public class SingletonDemo {
         }
 
         System.out.println("DCL: d1 == d2 ? " + (d1 == d2));
-        System.out.println("DCL: d1.connection = " + d1.getConnection());
-        System.out.println("DCL: d2.connection = " + d2.getConnection());
+        System.out.println("DCL: d1.pool = " + d1.getPool());
+        System.out.println("DCL: d2.pool = " + d2.getPool());
 
         // Enum
         ConnectionPoolEnum e1 = ConnectionPoolEnum.INSTANCE;
@@ -185,4 +133,42 @@ public class SingletonDemo {
             System.out.println("Enum reflection prevented: " + ex);
         }
     }
+
+    // 64 threads hammer both pools; distinct connections seen must stay within maxSize
+    static void poolTest() throws Exception {
+        final int threads = 64;
+        final int borrowsPerThread = 1_000;
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        Set<String> dclConnections = ConcurrentHashMap.newKeySet();
+        Set<String> enumConnections = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            exec.submit(() -> {
+                try {
+                    for (int j = 0; j < borrowsPerThread; j++) {
+                        try (PooledConnection c = ConnectionPoolDCL.getInstance().borrow()) {
+                            dclConnections.add(c.getConnection().getId());
+                        }
+                        try (PooledConnection c = ConnectionPoolEnum.INSTANCE.borrow()) {
+                            enumConnections.add(c.getConnection().getId());
+                        }
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        latch.await();
+        exec.shutdown();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println("Borrows: " + (2L * threads * borrowsPerThread) + " in " + elapsedMs + " ms");
+        System.out.println("Distinct DCL connections used: " + dclConnections.size() + " (max " + ConnectionPoolDCL.getInstance().getPool().getMaxSize() + ")");
+        System.out.println("Distinct Enum connections used: " + enumConnections.size() + " (max " + ConnectionPoolEnum.INSTANCE.getPool().getMaxSize() + ")");
+        System.out.println(ConnectionPoolDCL.getInstance().getPool());
+        System.out.println(ConnectionPoolEnum.INSTANCE.getPool());
+    }
 }
@@ -0,0 +1,14 @@
+package com.darunkar.design_patterns;
+
+// Like the real API, amounts are integers in the currency's smallest unit, alongside a currency code
+class StripeAPI{
+    public void makePayment(String currency, long minorUnits){
+        System.out.println("Stripe: Payment of " + Money.ofMinor(minorUnits, currency) + " processed.");
+    }
+
+    public void makePayments(String currency, long[] minorUnits){
+        long total = 0;
+        for(long amount : minorUnits) total += amount;
+        System.out.println("Stripe: Batch of " + minorUnits.length + " payments, " + Money.ofMinor(total, currency) + " processed.");
+    }
+}
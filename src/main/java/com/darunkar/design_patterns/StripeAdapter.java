@@ -0,0 +1,36 @@
+package com.darunkar.design_patterns;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class StripeAdapter implements  PaymentProcessor{
+
+    private final StripeAPI stripeAPI;
+    StripeAdapter(StripeAPI stripeAPI){
+        this.stripeAPI = stripeAPI;
+    }
+
+    // Stripe charges in the smallest currency unit, which is exactly what Money holds
+    @Override
+    public void pay(Money amount) {
+        stripeAPI.makePayment(amount.currencyCode(), amount.minorUnits());
+    }
+
+    // A Stripe batch has a single currency, so mixed batches become one call per currency
+    @Override
+    public void payBatch(List<Money> amounts) {
+        Map<String, List<Money>> byCurrency = new LinkedHashMap<>();
+        for(Money amount : amounts){
+            byCurrency.computeIfAbsent(amount.currencyCode(), c -> new ArrayList<>()).add(amount);
+        }
+        byCurrency.forEach((currency, batch) -> {
+            long[] minorUnits = new long[batch.size()];
+            for(int i = 0; i < minorUnits.length; i++){
+                minorUnits[i] = batch.get(i).minorUnits();
+            }
+            stripeAPI.makePayments(currency, minorUnits);
+        });
+    }
+}
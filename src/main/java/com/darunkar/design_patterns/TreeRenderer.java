@@ -0,0 +1,105 @@
+package com.darunkar.design_patterns;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+// Renders the showDetails() listing without recursion: an explicit stack walks the tree, indents come
+// from a per-depth cache instead of indent + "  " per level, and lines are collected in an 8 KB buffer
+// that goes to the Appendable in chunks, so a huge dump costs a handful of appends rather than one
+// synchronized println per node. Supports a depth limit and pagination by line (offset/limit).
+class TreeRenderer {
+
+    private static final String INDENT = "  ";
+    private static final int CHUNK = 8192;
+
+    private final int maxDepth;
+    private final long offset;
+    private final long limit;
+
+    TreeRenderer() {
+        this(Integer.MAX_VALUE, 0, Long.MAX_VALUE);
+    }
+
+    // maxDepth 0 prints only the root; offset/limit count output lines in listing order
+    TreeRenderer(int maxDepth, long offset, long limit) {
+        if (maxDepth < 0) throw new IllegalArgumentException("maxDepth must be >= 0");
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset and limit must be >= 0");
+        this.maxDepth = maxDepth;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    // Used by showDetails(): prints straight to System.out
+    static void print(FileComponent root, String indent) {
+        try {
+            new TreeRenderer().render(root, indent, System.out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // PrintStream doesn't throw, it sets checkError()
+        }
+    }
+
+    long render(FileComponent root, Appendable out) throws IOException {
+        return render(root, "", out);
+    }
+
+    // Returns the number of lines written; fewer than limit means the listing is complete
+    long render(FileComponent root, String baseIndent, Appendable out) throws IOException {
+        StringBuilder buffer = new StringBuilder(CHUNK + 256);
+        String[] indents = {baseIndent};
+
+        Deque<FileComponent> stack = new ArrayDeque<>();
+        int[] depths = new int[16];
+        stack.push(root);
+        depths[0] = 0;
+
+        long line = 0;
+        long written = 0;
+        while (!stack.isEmpty() && written < limit) {
+            FileComponent node = stack.pop();
+            int depth = depths[stack.size()];
+            boolean folder = node.isFolder();
+            List<FileComponent> children = folder ? node.getChildren() : List.of();
+
+            if (line++ >= offset) {
+                if (depth >= indents.length) indents = indentsUpTo(indents, depth);
+                buffer.append(indents[depth]);
+                if (folder) {
+                    buffer.append("📁 ").append(node.getName()).append('/');
+                    if (depth == maxDepth && !children.isEmpty()) buffer.append(" ...");
+                } else {
+                    buffer.append("📄 ").append(node.getName())
+                            .append(" (").append(FileLeaf.formatSize(node.getSize())).append(')');
+                }
+                buffer.append(System.lineSeparator());
+                written++;
+                if (buffer.length() >= CHUNK) {
+                    out.append(buffer);
+                    buffer.setLength(0);
+                }
+            }
+
+            if (depth < maxDepth) {
+                // reversed so the first child is popped first
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    if (stack.size() == depths.length) depths = Arrays.copyOf(depths, depths.length * 2);
+                    depths[stack.size()] = depth + 1;
+                    stack.push(children.get(i));
+                }
+            }
+        }
+        if (buffer.length() > 0) out.append(buffer);
+        return written;
+    }
+
+    private static String[] indentsUpTo(String[] indents, int depth) {
+        String[] grown = Arrays.copyOf(indents, Math.max(depth + 1, indents.length * 2));
+        for (int i = indents.length; i < grown.length; i++) {
+            grown[i] = grown[i - 1] + INDENT;
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,341 @@
+package com.darunkar.design_patterns;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Binary snapshot of a composite tree that is read straight from a read-only memory mapping:
+// open() only validates the header and maps the file, so a 10M-node tree "loads" in milliseconds,
+// and every JVM mapping the same file shares the OS page cache. Nothing is deserialised;
+// search, sizes and traversal read the mapped records, and views are created on demand.
+//
+// Layout (little endian): 32-byte header, then one 32-byte record per node in pre-order, then the
+// deduplicated UTF-8 names. A subtree is the contiguous record range [node, subtreeEnd).
+//   record: parent:int nextSibling:int subtreeEnd:int nameOffset:int nameLength|folderBit:int fileCount:int size:long
+class TreeSnapshot {
+
+    static final int NONE = -1;
+    private static final int MAGIC = 0x43545245; // "CTRE"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int RECORD_BYTES = 32;
+    private static final int FOLDER_BIT = 0x8000_0000;
+
+    private static final int PARENT = 0;
+    private static final int NEXT_SIBLING = 4;
+    private static final int SUBTREE_END = 8;
+    private static final int NAME_OFFSET = 12;
+    private static final int NAME_LENGTH = 16;
+    private static final int FILE_COUNT = 20;
+    private static final int SIZE = 24;
+
+    private final ByteBuffer records;
+    private final ByteBuffer names;
+    private final int nodeCount;
+
+    private TreeSnapshot(ByteBuffer records, ByteBuffer names, int nodeCount) {
+        this.records = records;
+        this.names = names;
+        this.nodeCount = nodeCount;
+    }
+
+    // ---- writing ----
+
+    // Writes to a temporary file first and moves it into place, so readers never map a half-written snapshot
+    static void write(FileComponent root, Path file) throws IOException {
+        List<FileComponent> nodes = new ArrayList<>();
+        int[] parents = new int[1024];
+
+        // iterative pre-order; children pushed in reverse so they come out in order
+        Deque<FileComponent> stack = new ArrayDeque<>();
+        Deque<Integer> stackParents = new ArrayDeque<>();
+        stack.push(root);
+        stackParents.push(NONE);
+        while (!stack.isEmpty()) {
+            FileComponent node = stack.pop();
+            int index = nodes.size();
+            if (index == parents.length) parents = Arrays.copyOf(parents, index * 2);
+            parents[index] = stackParents.pop();
+            nodes.add(node);
+            List<FileComponent> children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+                stackParents.push(index);
+            }
+        }
+
+        int count = nodes.size();
+        if ((long) count * RECORD_BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Tree too large for one snapshot: " + count + " nodes");
+        }
+        // descendants come after their ancestor, so one backwards pass settles every subtree end
+        int[] subtreeEnds = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            subtreeEnds[i] = Math.max(subtreeEnds[i], i + 1);
+            if (parents[i] != NONE) subtreeEnds[parents[i]] = Math.max(subtreeEnds[parents[i]], subtreeEnds[i]);
+        }
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.position(HEADER_BYTES);
+
+            Map<String, Integer> nameOffsets = new HashMap<>();
+            ByteArrayOutputStream nameBytes = new ByteArrayOutputStream();
+            ByteBuffer chunk = ByteBuffer.allocate(RECORD_BYTES * 2048).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < count; i++) {
+                FileComponent node = nodes.get(i);
+                byte[] name = node.getName().getBytes(StandardCharsets.UTF_8);
+                Integer nameOffset = nameOffsets.get(node.getName());
+                if (nameOffset == null) {
+                    nameOffset = nameBytes.size();
+                    nameOffsets.put(node.getName(), nameOffset);
+                    nameBytes.write(name, 0, name.length);
+                }
+                int parent = parents[i];
+                int nextSibling = parent != NONE && subtreeEnds[i] < subtreeEnds[parent] ? subtreeEnds[i] : NONE;
+
+                chunk.putInt(parent)
+                        .putInt(nextSibling)
+                        .putInt(subtreeEnds[i])
+                        .putInt(nameOffset)
+                        .putInt(name.length | (node.isFolder() ? FOLDER_BIT : 0))
+                        .putInt(node.countFiles())
+                        .putLong(node.getSize());
+                if (!chunk.hasRemaining()) flush(channel, chunk);
+            }
+            flush(channel, chunk);
+
+            long namesStart = channel.position();
+            writeFully(channel, ByteBuffer.wrap(nameBytes.toByteArray()));
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(nameBytes.size()).putLong(namesStart);
+            header.clear();
+            channel.position(0);
+            writeFully(channel, header);
+            channel.force(true);
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer chunk) throws IOException {
+        chunk.flip();
+        writeFully(channel, chunk);
+        chunk.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    // ---- reading ----
+
+    static TreeSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) throw new IOException("Not a tree snapshot: " + file);
+
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a tree snapshot: " + file);
+            if (header.getInt(4) != VERSION) throw new IOException("Unsupported snapshot version " + header.getInt(4));
+            int count = header.getInt(8);
+            int namesLength = header.getInt(12);
+            long namesStart = header.getLong(16);
+            if (count < 1 || namesStart != HEADER_BYTES + (long) count * RECORD_BYTES || namesStart + namesLength != fileSize) {
+                throw new IOException("Corrupt tree snapshot: " + file);
+            }
+
+            // the mappings stay valid after the channel is closed
+            ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, (long) count * RECORD_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer names = channel.map(FileChannel.MapMode.READ_ONLY, namesStart, namesLength);
+            return new TreeSnapshot(records, names, count);
+        }
+    }
+
+    // Reads use absolute gets only, so one snapshot can be shared by any number of threads
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    int root() {
+        return 0;
+    }
+
+    String name(int node) {
+        int length = nameLength(node);
+        byte[] bytes = new byte[length];
+        names.get(field(node, NAME_OFFSET), bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    long size(int node) {
+        return records.getLong(offset(node) + SIZE);
+    }
+
+    int fileCount(int node) {
+        return field(node, FILE_COUNT);
+    }
+
+    boolean isFolder(int node) {
+        return (field(node, NAME_LENGTH) & FOLDER_BIT) != 0;
+    }
+
+    int parent(int node) {
+        return field(node, PARENT);
+    }
+
+    int nextSibling(int node) {
+        return field(node, NEXT_SIBLING);
+    }
+
+    int firstChild(int node) {
+        return field(node, SUBTREE_END) > node + 1 ? node + 1 : NONE;
+    }
+
+    // First node named name in the subtree of from (pre-order), or NONE: a linear scan of the
+    // subtree's contiguous records, comparing lengths first and bytes only on a length match
+    int find(int from, String name) {
+        byte[] wanted = name.getBytes(StandardCharsets.UTF_8);
+        int end = field(from, SUBTREE_END);
+        int rejectedOffset = NONE; // names are deduplicated, so a rejected offset stays rejected
+        for (int node = from; node < end; node++) {
+            if (nameLength(node) != wanted.length) continue;
+            int nameOffset = field(node, NAME_OFFSET);
+            if (nameOffset == rejectedOffset) continue;
+            if (nameEquals(nameOffset, wanted)) return node;
+            rejectedOffset = nameOffset;
+        }
+        return NONE;
+    }
+
+    private boolean nameEquals(int nameOffset, byte[] wanted) {
+        for (int i = 0; i < wanted.length; i++) {
+            if (names.get(nameOffset + i) != wanted[i]) return false;
+        }
+        return true;
+    }
+
+    private int nameLength(int node) {
+        return field(node, NAME_LENGTH) & ~FOLDER_BIT;
+    }
+
+    private int field(int node, int fieldOffset) {
+        return records.getInt(offset(node) + fieldOffset);
+    }
+
+    private int offset(int node) {
+        if (node < 0 || node >= nodeCount) throw new IllegalArgumentException("No such node: " + node);
+        return node * RECORD_BYTES;
+    }
+
+    // ---- FileComponent views ----
+
+    FileComponent view(int node) {
+        offset(node);
+        return new Node(node);
+    }
+
+    FileComponent rootView() {
+        return new Node(0);
+    }
+
+    // Read-only flyweight view over one record
+    final class Node implements FileComponent {
+        private final int index;
+
+        private Node(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void showDetails(String indent) {
+            TreeRenderer.print(this, indent);
+        }
+
+        @Override
+        public long getSize() {
+            return size(index);
+        }
+
+        @Override
+        public FileComponent search(String name) {
+            int found = find(index, name);
+            return found != NONE ? new Node(found) : null;
+        }
+
+        @Override
+        public int countFiles() {
+            return fileCount(index);
+        }
+
+        @Override
+        public boolean delete(String name) {
+            return false; // snapshots are read-only; like FileLeaf, nothing here can be deleted
+        }
+
+        @Override
+        public boolean isFolder() {
+            return TreeSnapshot.this.isFolder(index);
+        }
+
+        @Override
+        public String getName() {
+            return name(index);
+        }
+
+        @Override
+        public FileComponent getParent() {
+            int parent = parent(index);
+            return parent != NONE ? new Node(parent) : null;
+        }
+
+        @Override
+        public List<FileComponent> getChildren() {
+            int child = firstChild(index);
+            if (child == NONE) return List.of();
+            List<FileComponent> children = new ArrayList<>();
+            for (; child != NONE; child = nextSibling(child)) {
+                children.add(new Node(child));
+            }
+            return children;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Node other && other.index == index && other.snapshot() == TreeSnapshot.this;
+        }
+
+        @Override
+        public int hashCode() {
+            return index;
+        }
+
+        private TreeSnapshot snapshot() {
+            return TreeSnapshot.this;
+        }
+
+        @Override
+        public String toString() {
+            return getPath();
+        }
+    }
+}
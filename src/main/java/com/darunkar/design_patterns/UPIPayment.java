@@ -0,0 +1,7 @@
+package com.darunkar.design_patterns;
+
+class UPIPayment implements Payment {
+    public void pay(Money amount) {
+        System.out.println("Paid " + amount + " using UPI");
+    }
+}
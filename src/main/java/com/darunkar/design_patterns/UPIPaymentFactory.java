@@ -0,0 +1,7 @@
+package com.darunkar.design_patterns;
+
+class UPIPaymentFactory implements PaymentFactory {
+    public Payment createPayment() {
+        return new UPIPayment();
+    }
+}
@@ -0,0 +1,46 @@
+package com.darunkar.design_patterns.facade;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class CheckoutExecutorConfig {
+
+    // Bounded pool for the async checkout steps; when the queue is full the
+    // request thread runs the step itself instead of piling up more work.
+    @Bean("checkoutExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor checkoutExecutor(@Value("${checkout.executor.pool-size:16}") int poolSize,
+                                     @Value("${checkout.executor.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("checkout-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    // With spring.threads.virtual.enabled=true on Java 21 Tomcat already serves requests on
+    // virtual threads; the facade sub-calls then get one virtual thread each, capped so a burst
+    // can't open unlimited concurrent calls against the downstream services.
+    @Bean("checkoutExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualCheckoutExecutor(@Value("${checkout.executor.virtual-concurrency-limit:1000}") int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("checkout-vt-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
+}
@@ -1,7 +1,20 @@
 package com.darunkar.design_patterns.facade;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 @Component
 public class CheckoutFacade {
 
@@ -9,13 +22,25 @@ public class CheckoutFacade {
     private final PaymentService paymentService;
     private final InvoiceService invoiceService;
     private final NotificationService notificationService;
+    private final Executor checkoutExecutor;
+
+    @Value("${checkout.timeout.reserve-ms:2000}")
+    private long reserveTimeoutMs;
+    @Value("${checkout.timeout.payment-ms:5000}")
+    private long paymentTimeoutMs;
+    @Value("${checkout.timeout.invoice-ms:3000}")
+    private long invoiceTimeoutMs;
+    @Value("${checkout.timeout.notification-ms:3000}")
+    private long notificationTimeoutMs;
 
     public CheckoutFacade(InventoryService inventoryService, PaymentService paymentService,
-                          InvoiceService invoiceService, NotificationService notificationService) {
+                          InvoiceService invoiceService, NotificationService notificationService,
+                          @Qualifier("checkoutExecutor") Executor checkoutExecutor) {
         this.inventoryService = inventoryService;
         this.paymentService = paymentService;
         this.invoiceService = invoiceService;
         this.notificationService = notificationService;
+        this.checkoutExecutor = checkoutExecutor;
     }
 
         public boolean placeOrder(String cartId, String paymentDetails) {
@@ -34,4 +59,133 @@ public class CheckoutFacade {
         System.out.println("Order placed successfully!");
         return true;
     }
+
+    // Reserve -> pay run in sequence, then invoice and confirmation fan out in parallel,
+    // so the tail of the checkout costs max(invoice, notify) instead of their sum.
+    public CompletableFuture<Boolean> placeOrderAsync(String cartId, String paymentDetails) {
+        CompletableFuture<Boolean> reservation = CompletableFuture
+                .supplyAsync(() -> inventoryService.reserveItems(cartId), checkoutExecutor);
+        CompletableFuture<Boolean> timedReservation = withTimeout(reservation, reserveTimeoutMs, lateReserved -> {
+            if (lateReserved) inventoryService.releaseItems(cartId);
+        });
+        return timedReservation
+                .thenCompose(reserved -> {
+                    if (!reserved) {
+                        System.out.println("Inventory not available!");
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    return payOrRelease(cartId, paymentDetails)
+                            .thenCompose(paid -> paid ? completeOrder(cartId) : CompletableFuture.completedFuture(false));
+                })
+                .exceptionally(ex -> {
+                    System.out.println("Checkout failed for cart " + cartId + ": " + ex);
+                    return false;
+                });
+    }
+
+    // Bulk checkout: one grouped reservation and one payment batch for all carts,
+    // then invoices/confirmations for the paid carts fan out on the checkout executor.
+    public List<OrderResult> placeOrders(List<OrderRequest> orders) {
+        OrderResult[] results = new OrderResult[orders.size()];
+        Map<String, Boolean> reserved = inventoryService.reserveItems(
+                orders.stream().map(OrderRequest::cartId).distinct().toList());
+
+        List<Integer> toCharge = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < orders.size(); i++) {
+            String cartId = orders.get(i).cartId();
+            if (!seen.add(cartId)) {
+                results[i] = new OrderResult(cartId, false, "Duplicate cart in batch");
+            } else if (!Boolean.TRUE.equals(reserved.get(cartId))) {
+                results[i] = new OrderResult(cartId, false, "Inventory not available");
+            } else {
+                toCharge.add(i);
+            }
+        }
+
+        List<Boolean> paid;
+        try {
+            paid = toCharge.isEmpty() ? List.of()
+                    : paymentService.processPayments(toCharge.stream().map(i -> orders.get(i).paymentDetails()).toList());
+        } catch (RuntimeException | Error ex) {
+            // no result for any cart, so none of the reservations may be kept
+            for (int i : toCharge) inventoryService.releaseItems(orders.get(i).cartId());
+            throw ex;
+        }
+
+        List<CompletableFuture<Boolean>> completions = new ArrayList<>();
+        for (int k = 0; k < toCharge.size(); k++) {
+            int i = toCharge.get(k);
+            String cartId = orders.get(i).cartId();
+            // a short result list leaves the remaining carts without a payment: release them like declines
+            if (paid != null && k < paid.size() && Boolean.TRUE.equals(paid.get(k))) {
+                completions.add(completeOrder(cartId));
+                results[i] = new OrderResult(cartId, true, "Order placed");
+            } else {
+                inventoryService.releaseItems(cartId);
+                results[i] = new OrderResult(cartId, false, "Payment failed");
+            }
+        }
+        CompletableFuture.allOf(completions.toArray(new CompletableFuture<?>[0])).join();
+
+        return Arrays.asList(results);
+    }
+
+    // Compensation: a failed or timed out payment gives the reservation back,
+    // and a payment that still goes through after its timeout is refunded.
+    private CompletableFuture<Boolean> payOrRelease(String cartId, String paymentDetails) {
+        CompletableFuture<Boolean> payment = CompletableFuture
+                .supplyAsync(() -> paymentService.processPayment(paymentDetails), checkoutExecutor);
+        CompletableFuture<Boolean> timedPayment = withTimeout(payment, paymentTimeoutMs, latePaid -> {
+            if (latePaid) paymentService.refundPayment(paymentDetails);
+        });
+        return timedPayment.handle((paid, ex) -> {
+            if (ex != null || !paid) {
+                System.out.println(ex != null ? "Payment timed out or failed: " + ex : "Payment failed!");
+                inventoryService.releaseItems(cartId);
+                return false;
+            }
+            return true;
+        });
+    }
+
+    // orTimeout only fails the future the caller sees; the step itself keeps running. A step that
+    // finishes after the caller already gave up is handed to compensateLate so its effect is undone.
+    // complete() decides the race atomically: it returns false once the timeout has won.
+    private static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> step, long timeoutMs,
+                                                        Consumer<T> compensateLate) {
+        CompletableFuture<T> timed = new CompletableFuture<>();
+        step.whenComplete((value, ex) -> {
+            if (ex != null) {
+                timed.completeExceptionally(ex);
+            } else if (!timed.complete(value)) {
+                System.out.println("Late result after timeout, compensating: " + value);
+                compensateLate.accept(value);
+            }
+        });
+        return timed.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    // The order is paid at this point, so invoice/notification problems are reported but don't fail it.
+    private CompletableFuture<Boolean> completeOrder(String cartId) {
+        CompletableFuture<Void> invoice = CompletableFuture
+                .runAsync(() -> invoiceService.generateInvoice(cartId), checkoutExecutor)
+                .orTimeout(invoiceTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    System.out.println("Invoice generation failed for cart " + cartId + ": " + ex);
+                    return null;
+                });
+        CompletableFuture<Void> notification = CompletableFuture
+                .runAsync(() -> notificationService.sendConfirmation(cartId), checkoutExecutor)
+                .orTimeout(notificationTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    System.out.println("Confirmation failed for cart " + cartId + ": " + ex);
+                    return null;
+                });
+
+        return CompletableFuture.allOf(invoice, notification).thenApply(done -> {
+            System.out.println("Order placed successfully!");
+            return true;
+        });
+    }
 }
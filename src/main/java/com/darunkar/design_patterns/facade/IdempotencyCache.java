@@ -0,0 +1,110 @@
+package com.darunkar.design_patterns.facade;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Remembers checkout outcomes per idempotency key so client retries get the stored result
+// instead of re-running (and re-charging) the whole checkout. Each key is bound to a fingerprint
+// of the request it was first used with; reusing it for a different request is rejected.
+@Component
+public class IdempotencyCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    public IdempotencyCache(@Value("${checkout.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${checkout.idempotency.ttl-seconds:600}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    // Completed keys return the stored result, in-flight keys hand out the same future,
+    // so concurrent duplicates wait on the first execution. Only successes are remembered:
+    // a false result or an exception drops the entry once it completes, so a retry runs again.
+    public CompletableFuture<Boolean> execute(String key, String fingerprint, Supplier<CompletableFuture<Boolean>> action) {
+        while (true) {
+            long now = System.nanoTime();
+            Entry current = entries.get(key);
+            if (current != null) {
+                if (!current.isExpired(now, ttlNanos)) {
+                    if (!current.fingerprint.equals(fingerprint)) {
+                        throw new IdempotencyKeyReusedException(key);
+                    }
+                    return current.result;
+                }
+                entries.remove(key, current);
+                continue;
+            }
+
+            Entry fresh = new Entry(new CompletableFuture<>(), fingerprint, now);
+            if (entries.putIfAbsent(key, fresh) == null) {
+                evictIfFull();
+                run(key, fresh, action);
+                return fresh.result;
+            }
+        }
+    }
+
+    private void run(String key, Entry entry, Supplier<CompletableFuture<Boolean>> action) {
+        try {
+            action.get().whenComplete((success, ex) -> {
+                if (ex != null || !Boolean.TRUE.equals(success)) {
+                    entries.remove(key, entry);
+                }
+                if (ex != null) {
+                    entry.result.completeExceptionally(ex);
+                } else {
+                    entry.result.complete(success);
+                }
+            });
+        } catch (RuntimeException ex) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(ex);
+        }
+    }
+
+    // Drops expired entries first, then the oldest completed ones, down to 90% of capacity.
+    // Only one thread sweeps at a time; everyone else keeps going.
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            entries.entrySet().removeIf(e -> e.getValue().isExpired(now, ttlNanos));
+
+            int excess = entries.size() - (int) (maxEntries * 0.9);
+            if (excess > 0) {
+                entries.entrySet().stream()
+                        .filter(e -> e.getValue().result.isDone())
+                        .sorted(Comparator.comparingLong(e -> e.getValue().createdAt))
+                        .limit(excess)
+                        .toList()
+                        .forEach(e -> entries.remove(e.getKey(), e.getValue()));
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private record Entry(CompletableFuture<Boolean> result, String fingerprint, long createdAt) {
+        // In-flight entries never expire, otherwise a slow checkout could be started twice
+        boolean isExpired(long now, long ttlNanos) {
+            return result.isDone() && now - createdAt > ttlNanos;
+        }
+    }
+}
@@ -2,10 +2,28 @@ package com.darunkar.design_patterns.facade;
 
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class InventoryService {
     public boolean reserveItems(String cartId) {
         System.out.println("Reserving items for cart " + cartId);
         return true;
     }
+
+    // One grouped reservation for a whole batch of carts instead of a round trip per cart
+    public Map<String, Boolean> reserveItems(List<String> cartIds) {
+        System.out.println("Reserving items for carts " + cartIds);
+        Map<String, Boolean> reserved = new LinkedHashMap<>();
+        for (String cartId : cartIds) {
+            reserved.put(cartId, true);
+        }
+        return reserved;
+    }
+
+    public void releaseItems(String cartId) {
+        System.out.println("Releasing reserved items for cart " + cartId);
+    }
 }
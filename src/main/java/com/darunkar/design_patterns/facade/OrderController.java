@@ -2,6 +2,9 @@ package com.darunkar.design_patterns.facade;
 
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
@@ -13,8 +16,21 @@ public class OrderController {
     }
 
     @PostMapping("/place")
-    public String placeOrder(@RequestParam String cartId, @RequestParam String paymentDetails) {
-        boolean success = orderService.placeCustomerOrder(cartId, paymentDetails);
+    public String placeOrder(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                             @RequestParam String cartId, @RequestParam String paymentDetails) {
+        boolean success = orderService.placeCustomerOrder(idempotencyKey, cartId, paymentDetails);
         return success ? "Order placed" : "Order failed";
     }
+
+    @PostMapping("/place-async")
+    public CompletableFuture<String> placeOrderAsync(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                     @RequestParam String cartId, @RequestParam String paymentDetails) {
+        return orderService.placeCustomerOrderAsync(idempotencyKey, cartId, paymentDetails)
+                .thenApply(success -> success ? "Order placed" : "Order failed");
+    }
+
+    @PostMapping("/place-batch")
+    public List<OrderResult> placeOrders(@RequestBody List<OrderRequest> orders) {
+        return orderService.placeCustomerOrders(orders);
+    }
 }
@@ -0,0 +1,4 @@
+package com.darunkar.design_patterns.facade;
+
+public record OrderRequest(String cartId, String paymentDetails) {
+}
@@ -0,0 +1,4 @@
+package com.darunkar.design_patterns.facade;
+
+public record OrderResult(String cartId, boolean success, String message) {
+}
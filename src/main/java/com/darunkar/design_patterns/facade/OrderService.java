@@ -2,16 +2,51 @@ package com.darunkar.design_patterns.facade;
 
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class OrderService {
 
     private final CheckoutFacade checkoutFacade;
+    private final IdempotencyCache idempotencyCache;
 
-    public OrderService(CheckoutFacade checkoutFacade) {
+    public OrderService(CheckoutFacade checkoutFacade, IdempotencyCache idempotencyCache) {
         this.checkoutFacade = checkoutFacade;
+        this.idempotencyCache = idempotencyCache;
+    }
+
+    public boolean placeCustomerOrder(String idempotencyKey, String cartId, String paymentDetails) {
+        return idempotencyCache.execute(keyFor(idempotencyKey, cartId), fingerprint(cartId, paymentDetails),
+                () -> CompletableFuture.completedFuture(checkoutFacade.placeOrder(cartId, paymentDetails))).join();
+    }
+
+    public CompletableFuture<Boolean> placeCustomerOrderAsync(String idempotencyKey, String cartId, String paymentDetails) {
+        return idempotencyCache.execute(keyFor(idempotencyKey, cartId), fingerprint(cartId, paymentDetails),
+                () -> checkoutFacade.placeOrderAsync(cartId, paymentDetails));
+    }
+
+    public List<OrderResult> placeCustomerOrders(List<OrderRequest> orders) {
+        return checkoutFacade.placeOrders(orders);
+    }
+
+    // Without an Idempotency-Key header the cart itself identifies the order
+    private static String keyFor(String idempotencyKey, String cartId) {
+        return idempotencyKey != null && !idempotencyKey.isBlank() ? idempotencyKey : cartId;
     }
 
-    public boolean placeCustomerOrder(String cartId, String paymentDetails) {
-        return checkoutFacade.placeOrder(cartId, paymentDetails);
+    // What the key was used for: the cart plus a hash of the payment details, so the raw
+    // details are never kept in the cache
+    static String fingerprint(String cartId, String paymentDetails) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(paymentDetails.getBytes(StandardCharsets.UTF_8));
+            return cartId + ":" + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex); // every JDK ships it
+        }
     }
 }
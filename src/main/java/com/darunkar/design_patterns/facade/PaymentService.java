@@ -2,10 +2,28 @@ package com.darunkar.design_patterns.facade;
 
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 public class PaymentService {
     public boolean processPayment(String paymentDetails) {
         System.out.println("Processing payment: " + paymentDetails);
         return true;
     }
-}
\ No newline at end of file
+
+    // Gives back a charge the checkout no longer wants, e.g. one that succeeded after its timeout
+    public void refundPayment(String paymentDetails) {
+        System.out.println("Refunding payment: " + paymentDetails);
+    }
+
+    // Pipelined batch: all payments go out in one submission, results come back in request order
+    public List<Boolean> processPayments(List<String> paymentDetails) {
+        System.out.println("Processing " + paymentDetails.size() + " payments in one batch");
+        List<Boolean> results = new ArrayList<>(paymentDetails.size());
+        for (int i = 0; i < paymentDetails.size(); i++) {
+            results.add(true);
+        }
+        return results;
+    }
+}
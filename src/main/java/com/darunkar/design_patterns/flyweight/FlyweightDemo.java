@@ -0,0 +1,58 @@
+package com.darunkar.design_patterns.flyweight;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class FlyweightDemo {
+    public static void main(String[] args) throws InterruptedException {
+
+        TextStyleFactory factory = new TextStyleFactory();
+
+        String text = "Hello";
+        for (int i = 0; i < text.length(); i++) {
+            TextStyle style = i == 0
+                    ? factory.getStyle("Arial", 14, "Red")
+                    : factory.getStyle("Arial", 12, "Black");
+            style.applyStyle(String.valueOf(text.charAt(i)), i);
+        }
+
+//        Millions of characters from several threads still share a handful of style objects
+        int threads = 8;
+        int charsPerThread = 1_000_000;
+        String[] colors = {"Black", "Red", "Blue"};
+        ExecutorService exec = Executors.newFixedThreadPool(threads);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            exec.submit(() -> {
+                for (int i = 0; i < charsPerThread; i++) {
+                    factory.getStyle("Arial", 12, colors[i % colors.length]);
+                }
+                latch.countDown();
+            });
+        }
+
+        latch.await();
+        exec.shutdown();
+
+        System.out.println(factory.stats());
+        System.out.println("Hit rate: " + factory.stats().hitRate());
+
+//        Columnar document: characters in a char[], styles as runs -> one render line per run
+        StyledDocument doc = new StyledDocument()
+                .append("Hello ", factory.getStyle("Arial", 14, "Red"))
+                .append("Flyweight", factory.getStyle("Arial", 12, "Black"))
+                .append(" World", factory.getStyle("Arial", 12, "Black"));
+        doc.render();
+
+        StyledDocument big = new StyledDocument(10_000_000);
+        String word = "flyweight ";
+        for (int i = 0; big.length() < 10_000_000; i++) {
+            big.append(word, factory.getStyle("Arial", 12, colors[(i / 100) % colors.length]));
+        }
+        big.trimToSize();
+        System.out.println("Characters: " + big.length() + ", runs: " + big.runCount() + ", styles: " + big.styleCount()
+                + ", ~" + (double) big.estimatedHeapBytes() / big.length() + " bytes/char");
+    }
+}
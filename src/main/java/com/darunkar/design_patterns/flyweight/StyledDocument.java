@@ -0,0 +1,130 @@
+package com.darunkar.design_patterns.flyweight;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Columnar document for the flyweight: characters live in one char[], positions are implicit
+// (array index), and styling is stored as runs [runStart, styleId] pointing into a small palette
+// of shared TextStyle flyweights. A 10M character document costs ~2 bytes/char plus 8 bytes per run.
+public class StyledDocument {
+
+    private char[] text;
+    private int length;
+
+    private int[] runStarts = new int[8];
+    private int[] runStyleIds = new int[8];
+    private int runCount;
+
+    private TextStyle[] palette = new TextStyle[4];
+    private final Map<TextStyle, Integer> paletteIds = new IdentityHashMap<>();
+
+    public StyledDocument() {
+        this(16);
+    }
+
+    public StyledDocument(int initialCapacity) {
+        this.text = new char[Math.max(1, initialCapacity)];
+    }
+
+    public StyledDocument append(CharSequence chars, TextStyle style) {
+        int count = chars.length();
+        if (count == 0) return this;
+        startRun(style, count);
+        for (int i = 0; i < count; i++) {
+            text[length++] = chars.charAt(i);
+        }
+        return this;
+    }
+
+    public StyledDocument append(char[] chars, int offset, int count, TextStyle style) {
+        if (count == 0) return this;
+        startRun(style, count);
+        System.arraycopy(chars, offset, text, length, count);
+        length += count;
+        return this;
+    }
+
+    // Extends the last run when the style doesn't change, otherwise opens a new one
+    private void startRun(TextStyle style, int count) {
+        if (length + count < 0) throw new IllegalStateException("Document too large");
+        if (length + count > text.length) {
+            text = Arrays.copyOf(text, Math.max(length + count, text.length * 2));
+        }
+
+        int styleId = styleIdOf(style);
+        if (runCount > 0 && runStyleIds[runCount - 1] == styleId) return;
+
+        if (runCount == runStarts.length) {
+            int capacity = Math.max(8, runCount * 2);
+            runStarts = Arrays.copyOf(runStarts, capacity);
+            runStyleIds = Arrays.copyOf(runStyleIds, capacity);
+        }
+        runStarts[runCount] = length;
+        runStyleIds[runCount] = styleId;
+        runCount++;
+    }
+
+    private int styleIdOf(TextStyle style) {
+        Integer id = paletteIds.get(style);
+        if (id != null) return id;
+        int next = paletteIds.size();
+        if (next == palette.length) palette = Arrays.copyOf(palette, next * 2);
+        palette[next] = style;
+        paletteIds.put(style, next);
+        return next;
+    }
+
+    // One applyStyle call per run instead of one per character
+    public void render() {
+        for (int r = 0; r < runCount; r++) {
+            palette[runStyleIds[r]].applyStyle(text, runStarts[r], runEnd(r));
+        }
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int position) {
+        checkPosition(position);
+        return text[position];
+    }
+
+    public TextStyle styleAt(int position) {
+        checkPosition(position);
+        int r = Arrays.binarySearch(runStarts, 0, runCount, position);
+        if (r < 0) r = -r - 2; // insertion point - 1 = run that contains the position
+        return palette[runStyleIds[r]];
+    }
+
+    public int runCount() {
+        return runCount;
+    }
+
+    public int styleCount() {
+        return paletteIds.size();
+    }
+
+    private int runEnd(int run) {
+        return run + 1 < runCount ? runStarts[run + 1] : length;
+    }
+
+    private void checkPosition(int position) {
+        if (position < 0 || position >= length) {
+            throw new IndexOutOfBoundsException("Position " + position + " out of bounds for length " + length);
+        }
+    }
+
+    // Drops the growth slack once the document is complete
+    public void trimToSize() {
+        text = Arrays.copyOf(text, length);
+        runStarts = Arrays.copyOf(runStarts, runCount);
+        runStyleIds = Arrays.copyOf(runStyleIds, runCount);
+    }
+
+    // Array payloads only (headers and the shared styles are noise at this scale)
+    public long estimatedHeapBytes() {
+        return 2L * text.length + 4L * runStarts.length + 4L * runStyleIds.length + 8L * palette.length;
+    }
+}
@@ -7,11 +7,14 @@ public class TextStyle {
     private final String fontFamily;
     private final int fontSize;
     private final String color;
+    private final int hash;
 
     public TextStyle(String fontFamily, int fontSize, String color){
         this.fontFamily = fontFamily;
         this.fontSize = fontSize;
         this.color = color;
+        // same value as Objects.hash(fontFamily, fontSize, color), minus the boxing and varargs array
+        this.hash = 31 * (31 * (31 + Objects.hashCode(fontFamily)) + fontSize) + Objects.hashCode(color);
     }
 
     public void applyStyle(String character, int position) {
@@ -19,17 +22,23 @@ public class TextStyle {
                 " using [" + fontFamily + ", " + fontSize + "px, " + color + "]");
     }
 
+    // Whole run of characters sharing this style, text[start, end)
+    public void applyStyle(char[] text, int start, int end) {
+        System.out.println("Rendering '" + new String(text, start, end - start) + "' at " + start + "-" + (end - 1) +
+                " using [" + fontFamily + ", " + fontSize + "px, " + color + "]");
+    }
+
 
     @Override
     public boolean equals(Object o) {
         if(this == o) return true;
         if(!(o instanceof TextStyle)) return false;
         TextStyle that = (TextStyle) o;
-        return fontSize == that.fontSize && fontFamily.equals(that.fontFamily) && color.equals((that.color));
+        return hash == that.hash && fontSize == that.fontSize && fontFamily.equals(that.fontFamily) && color.equals((that.color));
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(fontFamily, fontSize, color);
+        return hash;
     }
 }
@@ -0,0 +1,329 @@
+package com.darunkar.design_patterns.flyweight;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Flyweight factory: each (fontFamily, fontSize, color) combination is created once and shared.
+// Safe to use from many rendering threads; optionally bounded with CLOCK (approximate LRU) eviction.
+//
+// Lookups don't allocate: font and color are interned to small int ids, packed together with the
+// size into a long key, and resolved in an open-addressing long -> TextStyle table. Hits only read
+// the table; misses insert in place under the factory lock, so a miss costs one slot write, not a
+// copy of the table. Readers racing an insert or eviction may miss and fall back to the locked path,
+// but never see a half-built entry (Slot fields are final).
+//
+// A bounded factory also bounds its intern tables: fonts and colors no live style uses any more are
+// swept once there are more than twice maxSize of them, and their ids are recycled round-robin.
+// So a key from keyOf() can outlive its font or color there, and using such a stale key is undefined:
+// getStyle(long) throws IllegalArgumentException while the id is unused, but once the id has been
+// recycled the key silently resolves to a style with the new name. Keys of an unbounded factory never
+// go stale; with a bounded one, only hold on to keys of styles that stay in use, and call keyOf() again
+// otherwise.
+public class TextStyleFactory {
+
+    // key layout: [fontId:24][colorId:24][fontSize:16], ids start at 1 so a key is never 0
+    private static final int ID_BITS = 24;
+    private static final int MAX_ID = (1 << ID_BITS) - 1;
+    private static final int MAX_FONT_SIZE = 0xFFFF;
+
+    private final Interner fonts = new Interner();
+    private final Interner colors = new Interner();
+
+    private volatile StyleTable table = new StyleTable(16);
+    private final int maxSize; // 0 = unbounded
+    private int clockHand;     // guarded by this
+    private int sweepEpoch;    // guarded by this
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TextStyleFactory() {
+        this(0);
+    }
+
+    public TextStyleFactory(int maxSize) {
+        if (maxSize < 0) throw new IllegalArgumentException("maxSize must be >= 0");
+        this.maxSize = maxSize;
+    }
+
+    public TextStyle getStyle(String fontFamily, int fontSize, String color) {
+        checkFontSize(fontSize);
+        Symbol font = fonts.find(fontFamily);
+        Symbol colorSymbol = colors.find(color);
+        if (font != null && colorSymbol != null) {
+            TextStyle style = lookup(pack(font.id, fontSize, colorSymbol.id));
+            if (style != null) return style;
+        }
+        return createStyle(fontFamily, fontSize, color);
+    }
+
+    // Packed key for callers that resolve the same style in a hot loop; use with getStyle(long)
+    public long keyOf(String fontFamily, int fontSize, String color) {
+        checkFontSize(fontSize);
+        Symbol font = fonts.find(fontFamily);
+        Symbol colorSymbol = colors.find(color);
+        if (font == null || colorSymbol == null) {
+            synchronized (this) {
+                sweepSymbolsIfFull();
+                font = fonts.intern(fontFamily, sweepEpoch);
+                colorSymbol = colors.intern(color, sweepEpoch);
+            }
+        }
+        return pack(font.id, fontSize, colorSymbol.id);
+    }
+
+    public TextStyle getStyle(long key) {
+        TextStyle style = lookup(key);
+        if (style != null) return style;
+
+        String fontFamily;
+        String color;
+        synchronized (this) {
+            fontFamily = fonts.name((int) (key >>> (ID_BITS + 16)));
+            color = colors.name((int) (key >>> 16) & MAX_ID);
+            if (fontFamily == null || color == null) {
+                throw new IllegalArgumentException("Unknown style key: " + key);
+            }
+        }
+        return createStyle(fontFamily, (int) (key & MAX_FONT_SIZE), color);
+    }
+
+    private TextStyle lookup(long key) {
+        Slot slot = table.find(key);
+        if (slot == null) return null;
+
+        hits.increment();
+        if (maxSize > 0 && !slot.referenced) {
+            // only bounded factories need recency; racy plain write is fine for a CLOCK hint
+            slot.referenced = true;
+        }
+        return slot.style;
+    }
+
+    private synchronized TextStyle createStyle(String fontFamily, int fontSize, String color) {
+        sweepSymbolsIfFull();
+        Symbol font = fonts.intern(fontFamily, sweepEpoch);
+        Symbol colorSymbol = colors.intern(color, sweepEpoch);
+        long key = pack(font.id, fontSize, colorSymbol.id);
+
+        StyleTable current = table;
+        Slot existing = current.find(key);
+        if (existing != null) {
+            // another thread created it while we waited for the lock
+            hits.increment();
+            return existing.style;
+        }
+
+        misses.increment();
+        if (maxSize > 0 && current.size >= maxSize) {
+            evictOne(current);
+            evictions.increment();
+        }
+        if ((current.size + 1) * 2 > current.slots.length) {
+            current = current.resized(current.slots.length * 2);
+            clockHand = 0;
+        }
+        TextStyle style = new TextStyle(fontFamily, fontSize, color);
+        current.insert(new Slot(key, style, font, colorSymbol));
+        table = current; // publishes a resized table; a no-op write otherwise
+        return style;
+    }
+
+    // CLOCK: sweep from the hand, giving referenced slots a second chance, and drop the first
+    // unreferenced one. Terminates within two passes because every pass clears the bits it skips.
+    private void evictOne(StyleTable current) {
+        Slot[] slots = current.slots;
+        while (true) {
+            Slot slot = slots[clockHand];
+            if (slot != null) {
+                if (!slot.referenced) {
+                    current.remove(clockHand); // backward shift may move another slot here; look at it next
+                    return;
+                }
+                slot.referenced = false;
+            }
+            clockHand = (clockHand + 1) & current.mask;
+        }
+    }
+
+    // Bounded factories only: once an intern table holds more than twice maxSize names, drop the ones no
+    // live style uses. At most maxSize stay behind, so this runs at most once per maxSize new names.
+    // caller holds the lock
+    private void sweepSymbolsIfFull() {
+        if (maxSize == 0) return;
+        int limit = 2 * maxSize + 16;
+        if (fonts.size() <= limit && colors.size() <= limit) return;
+
+        int epoch = ++sweepEpoch;
+        for (Slot slot : table.slots) {
+            if (slot != null) {
+                slot.font.liveEpoch = epoch;
+                slot.color.liveEpoch = epoch;
+            }
+        }
+        fonts.removeOlderThan(epoch);
+        colors.removeOlderThan(epoch);
+    }
+
+    private static long pack(int fontId, int fontSize, int colorId) {
+        return ((long) fontId << (ID_BITS + 16)) | ((long) colorId << 16) | fontSize;
+    }
+
+    private static void checkFontSize(int fontSize) {
+        if (fontSize < 0 || fontSize > MAX_FONT_SIZE) {
+            throw new IllegalArgumentException("fontSize out of range: " + fontSize);
+        }
+    }
+
+    public int size() {
+        return table.size;
+    }
+
+    // Distinct font families and colors currently interned
+    synchronized int internedNames() {
+        return fonts.size() + colors.size();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), table.size);
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    // An interned font family or color
+    private static final class Symbol {
+        final String name;
+        final int id;
+        int liveEpoch; // last sweep that found a style using it; guarded by the factory lock
+
+        Symbol(String name, int id) {
+            this.name = name;
+            this.id = id;
+        }
+    }
+
+    // name <-> id for one attribute. find() is lock-free; everything else runs under the factory lock.
+    private static final class Interner {
+        private final Map<String, Symbol> byName = new ConcurrentHashMap<>();
+        private final Map<Integer, Symbol> byId = new HashMap<>();
+        private int nextId = 1;
+
+        Symbol find(String name) {
+            return byName.get(name);
+        }
+
+        Symbol intern(String name, int epoch) {
+            Symbol symbol = byName.get(name);
+            if (symbol != null) return symbol;
+            if (byId.size() >= MAX_ID) throw new IllegalStateException("Too many distinct values: " + byId.size());
+            // round-robin, so a freed id comes back only after every other id has been handed out
+            while (byId.containsKey(nextId)) nextId = nextId == MAX_ID ? 1 : nextId + 1;
+            symbol = new Symbol(name, nextId);
+            nextId = nextId == MAX_ID ? 1 : nextId + 1;
+            symbol.liveEpoch = epoch;
+            byId.put(symbol.id, symbol);
+            byName.put(name, symbol);
+            return symbol;
+        }
+
+        String name(int id) {
+            Symbol symbol = byId.get(id);
+            return symbol != null ? symbol.name : null;
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        void removeOlderThan(int epoch) {
+            byId.values().removeIf(symbol -> {
+                if (symbol.liveEpoch == epoch) return false;
+                byName.remove(symbol.name, symbol);
+                return true;
+            });
+        }
+    }
+
+    // One table entry; final fields make a slot safe to read without the lock even while it is published racily
+    private static final class Slot {
+        final long key;
+        final TextStyle style;
+        final Symbol font;
+        final Symbol color;
+        boolean referenced; // CLOCK bit
+
+        Slot(long key, TextStyle style, Symbol font, Symbol color) {
+            this.key = key;
+            this.style = style;
+            this.font = font;
+            this.color = color;
+        }
+    }
+
+    // Linear probing, load factor <= 0.5. Written only under the factory lock; read by anyone.
+    private static final class StyleTable {
+        final Slot[] slots;
+        final int mask;
+        volatile int size;
+
+        StyleTable(int capacity) {
+            this.slots = new Slot[capacity];
+            this.mask = capacity - 1;
+        }
+
+        Slot find(long key) {
+            for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+                Slot slot = slots[i];
+                if (slot == null) return null;
+                if (slot.key == key) return slot;
+            }
+        }
+
+        StyleTable resized(int capacity) {
+            StyleTable copy = new StyleTable(capacity);
+            for (Slot slot : slots) {
+                if (slot != null) copy.insert(slot);
+            }
+            return copy;
+        }
+
+        void insert(Slot slot) {
+            int i = mix(slot.key) & mask;
+            while (slots[i] != null) i = (i + 1) & mask;
+            slots[i] = slot;
+            size++;
+        }
+
+        // Backward-shift deletion: later slots of the same probe run move up so no lookup stops early
+        // at the hole. A reader racing the shift can miss and retries under the lock.
+        void remove(int index) {
+            int hole = index;
+            for (int i = (index + 1) & mask; slots[i] != null; i = (i + 1) & mask) {
+                int home = mix(slots[i].key) & mask;
+                // move slots[i] into the hole unless its home lies cyclically in (hole, i]
+                boolean homeAfterHole = hole <= i ? hole < home && home <= i : hole < home || home <= i;
+                if (!homeAfterHole) {
+                    slots[hole] = slots[i];
+                    hole = i;
+                }
+            }
+            slots[hole] = null;
+            size--;
+        }
+
+        private static int mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return (int) key;
+        }
+    }
+}
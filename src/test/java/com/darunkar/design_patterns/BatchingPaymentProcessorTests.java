@@ -0,0 +1,125 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingPaymentProcessorTests {
+
+	private static final Money AMOUNT = Money.of("19.99", "USD");
+
+	@Test
+	void fullBatchIsSentWithoutWaitingForTheDelay() throws Exception {
+		RecordingProcessor provider = new RecordingProcessor();
+		try (BatchingPaymentProcessor batching = new BatchingPaymentProcessor(provider, 3, 1, TimeUnit.MINUTES)) {
+			List<CompletableFuture<Void>> settled = new ArrayList<>();
+			for (int i = 0; i < 3; i++) settled.add(batching.submit(AMOUNT));
+
+			CompletableFuture.allOf(settled.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+			assertEquals(List.of(3), provider.batchSizes());
+		}
+	}
+
+	@Test
+	void partialBatchIsSentOnceTheOldestHasWaitedMaxDelay() throws Exception {
+		RecordingProcessor provider = new RecordingProcessor();
+		try (BatchingPaymentProcessor batching = new BatchingPaymentProcessor(provider, 100, 20, TimeUnit.MILLISECONDS)) {
+			batching.submit(AMOUNT).get(5, TimeUnit.SECONDS);
+			assertEquals(List.of(1), provider.batchSizes());
+		}
+	}
+
+	@Test
+	void closeSettlesWhatIsQueuedAndRejectsNewPayments() throws Exception {
+		RecordingProcessor provider = new RecordingProcessor();
+		BatchingPaymentProcessor batching = new BatchingPaymentProcessor(provider, 100, 1, TimeUnit.MINUTES);
+		CompletableFuture<Void> first = batching.submit(AMOUNT);
+		CompletableFuture<Void> second = batching.submit(AMOUNT);
+
+		batching.close();
+
+		assertTrue(first.isDone() && !first.isCompletedExceptionally());
+		assertTrue(second.isDone() && !second.isCompletedExceptionally());
+		assertEquals(2, batching.payments());
+		assertThrows(IllegalStateException.class, () -> batching.submit(AMOUNT));
+		assertThrows(IllegalStateException.class, () -> batching.payBatch(List.of(AMOUNT)));
+	}
+
+	@Test
+	void batchFailingWithAnErrorFailsItsPaymentsAndKeepsTheFlusherRunning() throws Exception {
+		RecordingProcessor provider = new RecordingProcessor();
+		provider.failNext = new AssertionError("provider blew up");
+		try (BatchingPaymentProcessor batching = new BatchingPaymentProcessor(provider, 1, 1, TimeUnit.MINUTES)) {
+			ExecutionException failed = assertThrows(ExecutionException.class,
+					() -> batching.submit(AMOUNT).get(5, TimeUnit.SECONDS));
+			assertTrue(failed.getCause() instanceof AssertionError, failed.getCause().toString());
+
+			batching.submit(AMOUNT).get(5, TimeUnit.SECONDS);
+			assertEquals(1, batching.batches());
+		}
+	}
+
+	@Test
+	void payBatchIsSplitIntoProviderBatchesOfAtMostMaxBatchSize() {
+		RecordingProcessor provider = new RecordingProcessor();
+		try (BatchingPaymentProcessor batching = new BatchingPaymentProcessor(provider, 2, 10, TimeUnit.MILLISECONDS)) {
+			batching.payBatch(List.of(AMOUNT, AMOUNT, AMOUNT, AMOUNT, AMOUNT));
+
+			assertEquals(5, batching.payments());
+			assertTrue(provider.batchSizes().stream().allMatch(size -> size <= 2), provider.batchSizes().toString());
+		}
+	}
+
+	@Test
+	void failedCurrencyDoesNotFailPaymentsAnotherCurrencyAlreadyCharged() throws Exception {
+		RecordingProcessor provider = new RecordingProcessor();
+		provider.failingCurrency = "EUR";
+		try (BatchingPaymentProcessor batching = new BatchingPaymentProcessor(provider, 3, 1, TimeUnit.MINUTES)) {
+			CompletableFuture<Void> dollars = batching.submit(AMOUNT);
+			CompletableFuture<Void> euros = batching.submit(Money.of("5.00", "EUR"));
+			CompletableFuture<Void> moreDollars = batching.submit(AMOUNT);
+
+			ExecutionException failed = assertThrows(ExecutionException.class, () -> euros.get(5, TimeUnit.SECONDS));
+			assertTrue(failed.getCause() instanceof IllegalStateException, failed.getCause().toString());
+			dollars.get(5, TimeUnit.SECONDS);
+			moreDollars.get(5, TimeUnit.SECONDS);
+			assertEquals(List.of(2), provider.batchSizes()); // both dollar payments in one provider call
+		}
+	}
+
+	private static final class RecordingProcessor implements PaymentProcessor {
+		private final List<Integer> batchSizes = new ArrayList<>();
+		volatile Error failNext;
+		volatile String failingCurrency;
+
+		@Override
+		public void pay(Money amount) {
+			payBatch(List.of(amount));
+		}
+
+		@Override
+		public synchronized void payBatch(List<Money> amounts) {
+			Error failure = failNext;
+			if (failure != null) {
+				failNext = null;
+				throw failure;
+			}
+			if (amounts.get(0).currencyCode().equals(failingCurrency)) {
+				throw new IllegalStateException("provider rejected " + failingCurrency);
+			}
+			batchSizes.add(amounts.size());
+		}
+
+		synchronized List<Integer> batchSizes() {
+			return List.copyOf(batchSizes);
+		}
+	}
+}
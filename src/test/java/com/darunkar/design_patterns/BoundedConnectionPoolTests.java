@@ -0,0 +1,184 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedConnectionPoolTests {
+
+	@Test
+	void borrowTimesOutWhenPoolIsExhausted() {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 0, 2, 30, TimeUnit.SECONDS);
+		PooledConnection first = pool.borrow(1, TimeUnit.SECONDS);
+		PooledConnection second = pool.borrow(1, TimeUnit.SECONDS);
+
+		assertThrows(IllegalStateException.class, () -> pool.borrow(50, TimeUnit.MILLISECONDS));
+		assertEquals(2, pool.getTotalConnections());
+		assertEquals(2, pool.getActiveConnections());
+
+		first.close();
+		second.close();
+		assertEquals(2, pool.getIdleConnections());
+	}
+
+	@Test
+	void waitingBorrowerGetsReturnedConnection() throws Exception {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 0, 1, 30, TimeUnit.SECONDS);
+		PooledConnection held = pool.borrow(1, TimeUnit.SECONDS);
+		SimpleConnection connection = held.getConnection();
+
+		CompletableFuture<SimpleConnection> waiter = CompletableFuture.supplyAsync(() -> {
+			try (PooledConnection borrowed = pool.borrow(5, TimeUnit.SECONDS)) {
+				return borrowed.getConnection();
+			}
+		});
+		Thread.sleep(50);
+		held.close();
+
+		assertSame(connection, waiter.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void concurrentBorrowersNeverExceedMaxSize() throws Exception {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 1, 4, 30, TimeUnit.SECONDS);
+		Set<String> seen = ConcurrentHashMap.newKeySet();
+		ExecutorService threads = Executors.newFixedThreadPool(16);
+		try {
+			Future<?>[] workers = new Future<?>[16];
+			for (int t = 0; t < workers.length; t++) {
+				workers[t] = threads.submit(() -> {
+					for (int i = 0; i < 2_000; i++) {
+						try (PooledConnection connection = pool.borrow(5, TimeUnit.SECONDS)) {
+							seen.add(connection.getConnection().getId());
+						}
+					}
+				});
+			}
+			for (Future<?> worker : workers) worker.get(30, TimeUnit.SECONDS);
+		} finally {
+			threads.shutdownNow();
+		}
+
+		assertTrue(seen.size() <= 4, "distinct connections: " + seen.size());
+		assertEquals(0, pool.getActiveConnections());
+		assertEquals(0, pool.getPendingBorrowers());
+	}
+
+	@Test
+	void idleConnectionsAreEvictedDownToMinSize() throws InterruptedException {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 1, 4, 50, TimeUnit.MILLISECONDS);
+		PooledConnection[] borrowed = new PooledConnection[4];
+		for (int i = 0; i < borrowed.length; i++) borrowed[i] = pool.borrow(1, TimeUnit.SECONDS);
+		for (PooledConnection connection : borrowed) connection.close();
+
+		Thread.sleep(100);
+		pool.evictIdle();
+
+		assertEquals(1, pool.getTotalConnections());
+		assertEquals(1, pool.getIdleConnections());
+	}
+
+	@Test
+	void closedHandleCannotBeUsed() {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 1, 1, 30, TimeUnit.SECONDS);
+		PooledConnection connection = pool.borrow(1, TimeUnit.SECONDS);
+		connection.close();
+		connection.close(); // second close is a no-op, not a double return
+
+		assertThrows(IllegalStateException.class, connection::getConnection);
+		assertEquals(1, pool.getIdleConnections());
+	}
+
+	@Test
+	void leakIsReportedOncePerBorrow() throws InterruptedException {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 1, 2, 30, TimeUnit.SECONDS);
+		CountingTracker tracker = new CountingTracker();
+		pool.addMetricsTracker(tracker);
+		pool.setLeakDetectionThreshold(50, TimeUnit.MILLISECONDS);
+
+		PooledConnection held = pool.borrow(1, TimeUnit.SECONDS);
+		Thread.sleep(100);
+		pool.detectLeaks();
+		pool.detectLeaks();
+		assertEquals(1, tracker.leaks.get());
+
+		held.close();
+		pool.detectLeaks();
+		assertEquals(1, tracker.leaks.get());
+	}
+
+	@Test
+	void reborrowIsMeasuredFromItsOwnBorrow() throws InterruptedException {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 1, 1, 30, TimeUnit.SECONDS);
+		CountingTracker tracker = new CountingTracker();
+		pool.addMetricsTracker(tracker);
+		pool.setLeakDetectionThreshold(50, TimeUnit.MILLISECONDS);
+
+		PooledConnection first = pool.borrow(1, TimeUnit.SECONDS);
+		Thread.sleep(100); // long borrow, but returned before the housekeeper looks
+		first.close();
+
+		PooledConnection second = pool.borrow(1, TimeUnit.SECONDS);
+		pool.detectLeaks();
+		second.close();
+		assertEquals(0, tracker.leaks.get());
+	}
+
+	@Test
+	void everyTrackerReceivesCreationTimesOfInitialConnections() {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 3, 5, 30, TimeUnit.SECONDS);
+		CountingTracker first = new CountingTracker();
+		CountingTracker second = new CountingTracker();
+
+		pool.addMetricsTracker(first);
+		pool.addMetricsTracker(second);
+
+		assertEquals(3, first.creations.get());
+		assertEquals(3, second.creations.get());
+	}
+
+	@Test
+	void secondTrackerDoesNotReplaceTheFirst() throws InterruptedException {
+		BoundedConnectionPool pool = new BoundedConnectionPool("test", 1, 2, 30, TimeUnit.SECONDS);
+		CountingTracker first = new CountingTracker();
+		CountingTracker second = new CountingTracker();
+		pool.addMetricsTracker(first);
+		pool.addMetricsTracker(second);
+		pool.setLeakDetectionThreshold(50, TimeUnit.MILLISECONDS);
+
+		PooledConnection held = pool.borrow(1, TimeUnit.SECONDS);
+		Thread.sleep(100);
+		pool.detectLeaks();
+		held.close();
+
+		assertEquals(1, first.leaks.get());
+		assertEquals(1, second.leaks.get());
+	}
+
+	private static class CountingTracker implements PoolMetricsTracker {
+		final AtomicInteger creations = new AtomicInteger();
+		final AtomicInteger leaks = new AtomicInteger();
+
+		@Override
+		public void recordConnectionCreation(long nanos) {
+			creations.incrementAndGet();
+		}
+
+		@Override
+		public void recordLeak(long heldNanos) {
+			leaks.incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingProductServiceProxyTests {
+
+	@Test
+	void hitsAreServedFromTheCache() {
+		AtomicInteger calls = new AtomicInteger();
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(id -> "v" + calls.incrementAndGet(),
+				100, 60, 30, TimeUnit.SECONDS);
+
+		assertEquals("v1", proxy.getProductDetails("a"));
+		assertEquals("v1", proxy.getProductDetails("a"));
+		assertEquals(1, calls.get());
+		assertEquals(1, proxy.stats().hits());
+	}
+
+	@Test
+	void failedLoadIsNotCachedEvenForErrors() {
+		AtomicInteger calls = new AtomicInteger();
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(id -> {
+			if (calls.incrementAndGet() == 1) throw new AssertionError("backend blew up");
+			return "ok";
+		}, 100, 60, 30, TimeUnit.SECONDS);
+
+		assertThrows(AssertionError.class, () -> proxy.getProductDetails("a"));
+		assertEquals(0, proxy.stats().size());
+		assertEquals("ok", proxy.getProductDetails("a"));
+	}
+
+	@Test
+	void concurrentMissesShareOneLoad() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(id -> {
+			calls.incrementAndGet();
+			loading.countDown();
+			await(release);
+			return "v";
+		}, 100, 60, 30, TimeUnit.SECONDS);
+
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> proxy.getProductDetails("a"));
+		loading.await(5, TimeUnit.SECONDS);
+		CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> proxy.getProductDetails("a"));
+		release.countDown();
+
+		assertEquals("v", first.get(5, TimeUnit.SECONDS));
+		assertEquals("v", second.get(5, TimeUnit.SECONDS));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void failedRefreshKeepsServingAndRetriesLater() {
+		AtomicInteger calls = new AtomicInteger();
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(id -> {
+			int call = calls.incrementAndGet();
+			if (call == 2) throw new AssertionError("refresh failed");
+			return "v" + call;
+		}, 100, 60_000, 0, TimeUnit.MILLISECONDS, Runnable::run);
+
+		assertEquals("v1", proxy.getProductDetails("a"));
+		sleepPastRefresh();
+		assertEquals("v1", proxy.getProductDetails("a")); // refresh #2 fails on the caller's thread
+		assertEquals("v1", proxy.getProductDetails("a")); // so this hit refreshes again
+		assertEquals("v3", proxy.getProductDetails("a"));
+		assertEquals(2, proxy.stats().refreshes()); // refreshAfter 0: the last hit refreshed as well
+	}
+
+	@Test
+	void nullResultIsReturnedButNotCached() {
+		AtomicInteger calls = new AtomicInteger();
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(id -> calls.incrementAndGet() == 1 ? null : "v",
+				100, 60, 30, TimeUnit.SECONDS);
+
+		assertNull(proxy.getProductDetails("a"));
+		assertEquals(0, proxy.stats().size());
+		assertEquals("v", proxy.getProductDetails("a"));
+	}
+
+	@Test
+	void refreshThatFindsNothingDropsTheEntry() {
+		AtomicInteger calls = new AtomicInteger();
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(id -> calls.incrementAndGet() == 1 ? "v1" : null,
+				100, 60_000, 0, TimeUnit.MILLISECONDS, Runnable::run);
+
+		assertEquals("v1", proxy.getProductDetails("a"));
+		sleepPastRefresh();
+		assertEquals("v1", proxy.getProductDetails("a")); // served while the refresh runs on the caller's thread
+		assertEquals(0, proxy.stats().size());
+		assertNull(proxy.getProductDetails("a"));
+	}
+
+	@Test
+	void fullCacheEvictsAnEntryNotReadSinceItWasLoaded() {
+		List<String> loads = new ArrayList<>();
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(id -> {
+			loads.add(id);
+			return "details " + id;
+		}, 3, 60, 30, TimeUnit.SECONDS);
+		for (String id : List.of("a", "b", "c")) proxy.getProductDetails(id);
+		proxy.getProductDetails("a");
+		proxy.getProductDetails("b");
+
+		proxy.getProductDetails("d");
+
+		assertEquals(3, proxy.stats().size());
+		assertEquals(1, proxy.stats().evictions());
+		proxy.getProductDetails("a");
+		proxy.getProductDetails("b");
+		assertEquals(List.of("a", "b", "c", "d"), loads); // c went, the recently read ones stayed
+	}
+
+	@Test
+	void bulkLookupLoadsOnlyTheMisses() {
+		CountingBulkService backend = new CountingBulkService();
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(backend, 100, 60, 30, TimeUnit.SECONDS);
+		proxy.getProductDetails("b");
+
+		Map<String, String> details = proxy.getProductDetails(List.of("a", "b", "c"));
+
+		assertEquals(List.of("a", "b", "c"), List.copyOf(details.keySet()));
+		assertEquals(List.of(List.of("a", "c")), backend.bulkRequests);
+	}
+
+	@Test
+	void idsMissingFromTheBulkAnswerAreNotCached() {
+		CountingBulkService backend = new CountingBulkService();
+		backend.unknown = "b";
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(backend, 100, 60, 30, TimeUnit.SECONDS);
+
+		Map<String, String> details = proxy.getProductDetails(List.of("a", "b"));
+
+		assertEquals("details a", details.get("a"));
+		assertNull(details.get("b"));
+		assertEquals(1, proxy.stats().size());
+		backend.unknown = null;
+		assertEquals("details b", proxy.getProductDetails(List.of("b")).get("b"));
+		assertEquals(List.of(List.of("a", "b"), List.of("b")), backend.bulkRequests);
+	}
+
+	@Test
+	void failedBulkLoadReleasesEveryClaimedEntry() {
+		CountingBulkService backend = new CountingBulkService();
+		backend.failNext = true;
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(backend, 100, 60, 30, TimeUnit.SECONDS);
+
+		assertThrows(IllegalStateException.class, () -> proxy.getProductDetails(List.of("a", "b")));
+		assertEquals(0, proxy.stats().size());
+		assertEquals(Map.of("a", "details a", "b", "details b"), proxy.getProductDetails(List.of("a", "b")));
+	}
+
+	@Test
+	void failureWhileClaimingReleasesTheEntriesClaimedSoFar() {
+		CachingProductServiceProxy proxy = new CachingProductServiceProxy(new CountingBulkService(), 100, 60, 30, TimeUnit.SECONDS);
+
+		assertThrows(NullPointerException.class, () -> proxy.getProductDetails(Arrays.asList("a", null)));
+		assertEquals(0, proxy.stats().size());
+		assertEquals("details a", proxy.getProductDetails("a")); // would block forever on a leaked claim
+	}
+
+	private static final class CountingBulkService implements ProductService {
+		final List<List<String>> bulkRequests = new ArrayList<>();
+		boolean failNext;
+		String unknown; // left out of bulk answers
+
+		@Override
+		public String getProductDetails(String productId) {
+			return "details " + productId;
+		}
+
+		@Override
+		public Map<String, String> getProductDetails(Collection<String> productIds) {
+			bulkRequests.add(List.copyOf(productIds));
+			if (failNext) {
+				failNext = false;
+				throw new IllegalStateException("database down");
+			}
+			Map<String, String> details = new LinkedHashMap<>();
+			for (String productId : productIds) {
+				if (!productId.equals(unknown)) details.put(productId, getProductDetails(productId));
+			}
+			return details;
+		}
+	}
+
+	private static void sleepPastRefresh() {
+		try {
+			Thread.sleep(2);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
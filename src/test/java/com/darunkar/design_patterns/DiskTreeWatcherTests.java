@@ -0,0 +1,93 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiskTreeWatcherTests {
+
+	@Test
+	void loadsTheDirectoryTree() throws IOException {
+		Path dir = Files.createTempDirectory("watch");
+		try {
+			Files.createDirectories(dir.resolve("a/b"));
+			Files.write(dir.resolve("a/one"), new byte[10]);
+			Files.write(dir.resolve("a/b/two"), new byte[20]);
+
+			try (DiskTreeWatcher watcher = new DiskTreeWatcher(dir, new DiskTreeLoader())) {
+				FolderComposite root = watcher.getRoot();
+				assertEquals(2, root.countFiles());
+				assertEquals(30, root.getSize());
+			}
+		} finally {
+			deleteRecursively(dir);
+		}
+	}
+
+	@Test
+	void newDirectoryIsAddedOnceWithItsFiles() throws Exception {
+		Path dir = Files.createTempDirectory("watch");
+		try (DiskTreeWatcher watcher = new DiskTreeWatcher(dir, new DiskTreeLoader())) {
+			FolderComposite root = watcher.getRoot();
+			Path created = Files.createDirectories(dir.resolve("new/inner"));
+			Files.write(created.resolve("file"), new byte[5]);
+
+			awaitTree(watcher, () -> root.getSize() == 5);
+			assertEquals(1, root.getChildren().size());
+			assertEquals(1, root.countFiles());
+
+			Files.write(created.resolve("later"), new byte[7]);
+			awaitTree(watcher, () -> root.getSize() == 12);
+			assertEquals(2, root.countFiles());
+		} finally {
+			deleteRecursively(dir);
+		}
+	}
+
+	@Test
+	void deletedDirectoryIsRemovedAndNoLongerWatched() throws Exception {
+		Path dir = Files.createTempDirectory("watch");
+		try {
+			Files.createDirectories(dir.resolve("gone/deeper"));
+			Files.write(dir.resolve("gone/deeper/file"), new byte[3]);
+			Files.write(dir.resolve("kept"), new byte[4]);
+
+			try (DiskTreeWatcher watcher = new DiskTreeWatcher(dir, new DiskTreeLoader())) {
+				FolderComposite root = watcher.getRoot();
+				deleteRecursively(dir.resolve("gone"));
+
+				awaitTree(watcher, () -> root.getChild("gone") == null);
+				assertNull(root.search("deeper"));
+				assertEquals(4, root.getSize());
+				assertEquals(1, root.countFiles());
+			}
+		} finally {
+			deleteRecursively(dir);
+		}
+	}
+
+	private static void awaitTree(DiskTreeWatcher watcher, BooleanSupplier done) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!done.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "tree did not catch up with the disk");
+			watcher.processEvents(100, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private static void deleteRecursively(Path dir) throws IOException {
+		if (!Files.exists(dir)) return;
+		try (Stream<Path> paths = Files.walk(dir)) {
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+		}
+	}
+}
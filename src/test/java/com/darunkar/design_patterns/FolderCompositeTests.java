@@ -0,0 +1,72 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FolderCompositeTests {
+
+	@Test
+	void searchReturnsTheFirstMatchInDepthFirstOrder() {
+		FolderComposite root = new FolderComposite("root");
+		FolderComposite first = new FolderComposite("a");
+		FolderComposite nested = new FolderComposite("b");
+		FileLeaf deep = new FileLeaf("dup", 1);
+		FileLeaf shallow = new FileLeaf("dup", 2);
+		FileLeaf later = new FileLeaf("dup", 3);
+		root.add(first);
+		first.add(nested);
+		nested.add(deep);
+		first.add(shallow);
+		root.add(later);
+
+		assertSame(deep, root.search("dup"));
+		assertSame(deep, first.search("dup"));
+
+		assertTrue(root.delete("dup"));
+		assertSame(shallow, root.search("dup"));
+		assertTrue(root.delete("dup"));
+		assertSame(later, root.search("dup"));
+	}
+
+	@Test
+	void deleteRemovesMatchesInDepthFirstOrder() {
+		FolderComposite root = new FolderComposite("root");
+		FolderComposite folder = new FolderComposite("dup");
+		FileLeaf inside = new FileLeaf("dup", 10);
+		FileLeaf sibling = new FileLeaf("dup", 20);
+		folder.add(inside);
+		root.add(folder);
+		root.add(sibling);
+
+		assertTrue(root.delete("dup"));
+		assertNull(folder.getParent());
+		assertSame(sibling, root.search("dup"));
+		assertEquals(20, root.getSize());
+		assertFalse(root.delete("root"));
+	}
+
+	@Test
+	void indexFollowsMovesMadeBeforeAndAfterTheFirstSearch() {
+		FolderComposite root = new FolderComposite("root");
+		FolderComposite docs = new FolderComposite("docs");
+		docs.add(new FileLeaf("report", 1));
+		root.add(docs);
+		assertEquals("root/docs/report", root.search("report").getPath());
+
+		FolderComposite archive = new FolderComposite("archive");
+		archive.add(new FileLeaf("old", 1));
+		root.add(archive);
+		assertEquals("root/archive/old", root.search("old").getPath());
+
+		root.remove(docs);
+		assertNull(root.search("report"));
+		assertEquals("docs/report", docs.search("report").getPath());
+		assertEquals(1, root.searchByPrefix("ol").size());
+		assertEquals(1, docs.searchGlob("rep*").size());
+	}
+}
@@ -0,0 +1,106 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatchingProductServiceTests {
+
+	@Test
+	void concurrentLookupsShareOneBulkCall() throws Exception {
+		AtomicInteger bulkCalls = new AtomicInteger();
+		ProductService backend = bulk(ids -> bulkCalls.incrementAndGet());
+		try (MicroBatchingProductService batcher = new MicroBatchingProductService(backend, 200, TimeUnit.MILLISECONDS, 100)) {
+			List<CompletableFuture<String>> results = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				String productId = "p" + i;
+				results.add(CompletableFuture.supplyAsync(() -> batcher.getProductDetails(productId)));
+			}
+			for (int i = 0; i < 10; i++) {
+				assertEquals("details p" + i, results.get(i).get(5, TimeUnit.SECONDS));
+			}
+		}
+		assertTrue(bulkCalls.get() <= 2, "bulk calls: " + bulkCalls.get());
+	}
+
+	@Test
+	void slowBatchDoesNotHoldUpTheNextWindow() throws Exception {
+		CountDownLatch secondBatchStarted = new CountDownLatch(1);
+		AtomicInteger calls = new AtomicInteger();
+		ProductService backend = bulk(ids -> {
+			if (calls.incrementAndGet() == 1) {
+				try {
+					// the first batch only finishes once the second one has reached the backend
+					assertTrue(secondBatchStarted.await(5, TimeUnit.SECONDS));
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			} else {
+				secondBatchStarted.countDown();
+			}
+		});
+		try (MicroBatchingProductService batcher = new MicroBatchingProductService(backend, 10, TimeUnit.MILLISECONDS, 100)) {
+			CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> batcher.getProductDetails("a"));
+			Thread.sleep(50);
+			CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> batcher.getProductDetails("b"));
+
+			assertEquals("details b", second.get(5, TimeUnit.SECONDS));
+			assertEquals("details a", first.get(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	void backendFailureFailsTheWholeBatch() {
+		ProductService backend = bulk(ids -> {
+			throw new AssertionError("backend down");
+		});
+		try (MicroBatchingProductService batcher = new MicroBatchingProductService(backend, 1, TimeUnit.MILLISECONDS, 100)) {
+			assertThrows(AssertionError.class, () -> batcher.getProductDetails("a"));
+		}
+	}
+
+	@Test
+	void closeSendsPendingLookupsAndRejectsNewOnes() throws Exception {
+		AtomicInteger bulkCalls = new AtomicInteger();
+		MicroBatchingProductService batcher = new MicroBatchingProductService(bulk(ids -> bulkCalls.incrementAndGet()),
+				1, TimeUnit.MINUTES, 100);
+		CompletableFuture<String> pending = CompletableFuture.supplyAsync(() -> batcher.getProductDetails("a"));
+		Thread.sleep(50);
+
+		batcher.close();
+
+		assertEquals("details a", pending.get(5, TimeUnit.SECONDS));
+		assertEquals(1, bulkCalls.get());
+		assertThrows(IllegalStateException.class, () -> batcher.getProductDetails("b"));
+	}
+
+	private static ProductService bulk(Consumer<Collection<String>> onBulkCall) {
+		return new ProductService() {
+			@Override
+			public String getProductDetails(String productId) {
+				return "details " + productId;
+			}
+
+			@Override
+			public Map<String, String> getProductDetails(Collection<String> productIds) {
+				onBulkCall.accept(productIds);
+				Map<String, String> details = new LinkedHashMap<>();
+				for (String productId : productIds) details.put(productId, getProductDetails(productId));
+				return details;
+			}
+		};
+	}
+}
@@ -0,0 +1,33 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTests {
+
+	@Test
+	void parsesWithoutRounding() {
+		assertEquals(4999, Money.of("49.99", "USD").minorUnits());
+		assertEquals(-50, Money.of("-0.5", "USD").minorUnits());
+		assertEquals(500, Money.of("500", "JPY").minorUnits());
+		assertThrows(IllegalArgumentException.class, () -> Money.of("49.999", "USD"));
+		assertThrows(IllegalArgumentException.class, () -> Money.of("1.5", "JPY"));
+	}
+
+	@Test
+	void formatsWithTheCurrencysFractionDigits() {
+		assertEquals("49.99", Money.ofMinor(4999, "USD").toDecimalString());
+		assertEquals("-0.05", Money.ofMinor(-5, "USD").toDecimalString());
+		assertEquals("500", Money.ofMinor(500, "JPY").toDecimalString());
+		assertEquals("1.234", Money.ofMinor(1234, "BHD").toDecimalString());
+	}
+
+	@Test
+	void arithmeticRefusesMixedCurrencies() {
+		assertEquals(Money.of("69.98", "USD"), Money.of("49.99", "USD").plus(Money.of("19.99", "USD")));
+		assertThrows(IllegalArgumentException.class, () -> Money.of("1", "USD").plus(Money.of("1", "EUR")));
+		assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, "USD").times(2));
+	}
+}
@@ -0,0 +1,50 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ParallelTreeTraversalTests {
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+	private final ParallelTreeTraversal traversal = new ParallelTreeTraversal(pool, 1);
+
+	@AfterEach
+	void shutDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void aggregatesMatchTheCachedTotals() {
+		FolderComposite root = wideTree();
+
+		assertEquals(root.getSize(), traversal.totalSize(root));
+		assertEquals(1 + 50 + 50 * 20, traversal.countNodes(root));
+	}
+
+	@Test
+	void searchLeavesNoSubtasksBehind() {
+		FolderComposite root = wideTree();
+
+		for (int i = 0; i < 200; i++) {
+			assertEquals("root/dir-7/file-3@7", traversal.search(root, "file-3@7").getPath());
+			assertEquals(0, pool.getQueuedTaskCount());
+		}
+		assertNull(traversal.search(root, "missing"));
+		assertEquals(0, pool.getQueuedTaskCount());
+	}
+
+	private static FolderComposite wideTree() {
+		FolderComposite root = new FolderComposite("root");
+		for (int d = 0; d < 50; d++) {
+			FolderComposite dir = new FolderComposite("dir-" + d);
+			for (int f = 0; f < 20; f++) dir.add(new FileLeaf("file-" + f + "@" + d, f + 1));
+			root.add(dir);
+		}
+		return root;
+	}
+}
@@ -0,0 +1,45 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PaymentAdapterTests {
+
+	@Test
+	void stripeIsChargedInTheCurrencyOfThePayment() {
+		List<String> calls = new ArrayList<>();
+		StripeAPI api = new StripeAPI() {
+			@Override
+			public void makePayment(String currency, long minorUnits) {
+				calls.add(currency + " " + minorUnits);
+			}
+		};
+		PaymentProcessor stripe = new StripeAdapter(api);
+
+		stripe.pay(Money.of("49.99", "USD"));
+		stripe.pay(Money.of("500", "JPY"));
+
+		assertEquals(List.of("USD 4999", "JPY 500"), calls);
+	}
+
+	@Test
+	void mixedCurrencyStripeBatchBecomesOneCallPerCurrency() {
+		List<String> calls = new ArrayList<>();
+		StripeAPI api = new StripeAPI() {
+			@Override
+			public void makePayments(String currency, long[] minorUnits) {
+				calls.add(currency + " " + Arrays.toString(minorUnits));
+			}
+		};
+		PaymentProcessor stripe = new StripeAdapter(api);
+
+		stripe.payBatch(List.of(Money.of("1.50", "USD"), Money.of("2", "EUR"), Money.of("0.25", "USD")));
+
+		assertEquals(List.of("USD [150, 25]", "EUR [200]"), calls);
+	}
+}
@@ -0,0 +1,73 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PaymentFactoryRegistryTests {
+
+	static final List<Money> giftCardPayments = new ArrayList<>();
+
+	@Test
+	void badServiceEntriesAreSkippedAndLaterPluginsStillLoad() {
+		// META-INF/services on the test class path lists a missing class and a failing constructor first
+		PaymentFactoryRegistry registry = PaymentFactoryRegistry.getInstance();
+
+		registry.pay("giftcard", Money.ofMajor(5, "INR"));
+
+		assertEquals(List.of(Money.ofMajor(5, "INR")), giftCardPayments);
+		assertEquals(1, registry.created("giftcard"));
+	}
+
+	@Test
+	void statelessProductsAreShared() {
+		PaymentFactoryRegistry registry = new PaymentFactoryRegistry();
+
+		assertSame(registry.getPayment(PaymentType.UPI), registry.getPayment(PaymentType.UPI));
+		assertEquals(1, registry.created("upi"));
+	}
+
+	@Test
+	void statefulProductsAreReusedFromThePool() {
+		PaymentFactoryRegistry registry = new PaymentFactoryRegistry();
+		registry.register("wallet", new PaymentFactory() {
+			public Payment createPayment() { return amount -> {}; }
+			public boolean isStateless() { return false; }
+		});
+
+		for (int i = 0; i < 3; i++) registry.pay("Wallet", Money.ofMajor(1, "INR"));
+
+		assertEquals(1, registry.created("wallet"));
+		assertThrows(IllegalArgumentException.class, () -> registry.register("WALLET", () -> amount -> {}));
+	}
+
+	@Test
+	void nullLookupsFailFast() {
+		PaymentFactoryRegistry registry = new PaymentFactoryRegistry();
+
+		assertThrows(IllegalArgumentException.class, () -> registry.pay((PaymentType) null, Money.ofMajor(1, "INR")));
+		assertThrows(IllegalArgumentException.class, () -> registry.pay((String) null, Money.ofMajor(1, "INR")));
+		assertThrows(IllegalArgumentException.class, () -> registry.getPayment(null));
+	}
+
+	public static class GiftCardPaymentFactory implements PaymentFactory {
+		public Payment createPayment() {
+			return giftCardPayments::add;
+		}
+	}
+
+	public static class BrokenPaymentFactory implements PaymentFactory {
+		public BrokenPaymentFactory() {
+			throw new IllegalStateException("plugin misconfigured");
+		}
+
+		public Payment createPayment() {
+			throw new AssertionError("never constructed");
+		}
+	}
+}
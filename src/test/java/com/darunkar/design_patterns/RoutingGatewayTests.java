@@ -0,0 +1,282 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingGatewayTests {
+
+	private static final Money AMOUNT = Money.ofMajor(10, "INR");
+
+	@Test
+	void unreachableGatewayFailsOverStraightAway() throws Exception {
+		FakeGateway first = new FakeGateway("first", amount -> PaymentResult.unreachable("first", amount, "connection refused"));
+		FakeGateway second = new FakeGateway("second", amount -> PaymentResult.approved("second", amount, "tx-2"));
+		try (RoutingGateway router = new RoutingGateway(ordered(first, second))) {
+			PaymentResult result = router.processPayment(AMOUNT).get(5, TimeUnit.SECONDS);
+
+			assertEquals("tx-2", result.transactionId());
+			assertEquals(1, router.failovers());
+			assertTrue(first.cancelledKeys.isEmpty(), "nothing to cancel when the request never arrived");
+		}
+	}
+
+	@Test
+	void ambiguousErrorFailsOverOnlyAfterTheCancelIsConfirmed() throws Exception {
+		FakeGateway first = new FakeGateway("first", amount -> PaymentResult.gatewayError("first", amount, "timeout"));
+		first.cancelConfirmed = true;
+		FakeGateway second = new FakeGateway("second", amount -> PaymentResult.approved("second", amount, "tx-2"));
+		try (RoutingGateway router = new RoutingGateway(ordered(first, second))) {
+			PaymentResult result = router.processPayment(AMOUNT).get(5, TimeUnit.SECONDS);
+
+			assertTrue(result.success());
+			assertEquals(1, router.failovers());
+			assertEquals(1, router.voids());
+			// the same key went to both gateways and the cancel was for that key
+			assertEquals(first.keys, second.keys);
+			assertEquals(first.keys, first.cancelledKeys);
+		}
+	}
+
+	@Test
+	void ambiguousErrorWithoutConfirmedCancelIsReturnedAsIs() throws Exception {
+		FakeGateway first = new FakeGateway("first", amount -> PaymentResult.gatewayError("first", amount, "timeout"));
+		FakeGateway second = new FakeGateway("second", amount -> PaymentResult.approved("second", amount, "tx-2"));
+		try (RoutingGateway router = new RoutingGateway(ordered(first, second))) {
+			PaymentResult result = router.processPayment(AMOUNT).get(5, TimeUnit.SECONDS);
+
+			assertEquals(PaymentResult.Status.GATEWAY_ERROR, result.status());
+			assertEquals(0, router.failovers());
+			assertEquals(1, first.cancelledKeys.size());
+			assertTrue(second.keys.isEmpty(), "retrying elsewhere could charge twice");
+		}
+	}
+
+	@Test
+	void duplicateApprovalThatCannotBeVoidedIsCountedAsFailed() throws Exception {
+		CompletableFuture<PaymentResult> slow = new CompletableFuture<>();
+		FakeGateway first = new FakeGateway("first", amount -> PaymentResult.approved("first", amount, "tx-1"));
+		FakeGateway second = new FakeGateway("second", amount -> PaymentResult.approved("second", amount, "tx-2"));
+		try (RoutingGateway router = new RoutingGateway(ordered(first, second), true)) {
+			FakeGateway preferred = warmUp(router, first, second);
+			FakeGateway backup = preferred == first ? second : first;
+			preferred.next = slow;
+			PaymentResult result = router.processPayment(AMOUNT).get(5, TimeUnit.SECONDS);
+			assertEquals(backup.name, result.gateway()); // the hedge answered first
+
+			slow.complete(PaymentResult.approved(preferred.name, AMOUNT, "tx-late"));
+
+			assertEquals(1, router.hedges());
+			assertEquals(List.of("tx-late"), preferred.voidedTransactions);
+			assertEquals(0, router.voids());
+			assertEquals(1, router.failedVoids());
+		}
+	}
+
+	@Test
+	void hedgedErrorFollowedByUnreachableIsNotReportedUnreachable() throws Exception {
+		CompletableFuture<PaymentResult> slowFirst = new CompletableFuture<>();
+		CompletableFuture<PaymentResult> slowSecond = new CompletableFuture<>();
+		FakeGateway first = new FakeGateway("first", amount -> PaymentResult.approved("first", amount, "tx-1"));
+		FakeGateway second = new FakeGateway("second", amount -> PaymentResult.approved("second", amount, "tx-2"));
+		try (RoutingGateway router = new RoutingGateway(ordered(first, second), true)) {
+			FakeGateway preferred = warmUp(router, first, second);
+			FakeGateway backup = preferred == first ? second : first;
+			preferred.next = slowFirst;
+			backup.next = slowSecond;
+			int warmUpCalls = backup.calls();
+			CompletableFuture<PaymentResult> pending = router.processPayment(AMOUNT, "order-7");
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (backup.calls() == warmUpCalls && System.nanoTime() < deadline) Thread.sleep(1);
+			assertEquals(1, router.hedges());
+
+			slowFirst.complete(PaymentResult.gatewayError(preferred.name, AMOUNT, "timeout"));
+			slowSecond.complete(PaymentResult.unreachable(backup.name, AMOUNT, "connection refused"));
+			PaymentResult result = pending.get(5, TimeUnit.SECONDS);
+
+			// the first gateway may have charged and would not confirm a cancel
+			assertEquals(PaymentResult.Status.GATEWAY_ERROR, result.status());
+			assertEquals(List.of("order-7"), preferred.cancelledKeys);
+			assertTrue(backup.cancelledKeys.isEmpty(), "the hedge never reached its gateway");
+		}
+	}
+
+	@Test
+	void hedgedErrorIsReportedUnreachableOnlyAfterItsCancelIsConfirmed() throws Exception {
+		CompletableFuture<PaymentResult> slowFirst = new CompletableFuture<>();
+		CompletableFuture<PaymentResult> slowSecond = new CompletableFuture<>();
+		FakeGateway first = new FakeGateway("first", amount -> PaymentResult.approved("first", amount, "tx-1"));
+		FakeGateway second = new FakeGateway("second", amount -> PaymentResult.approved("second", amount, "tx-2"));
+		first.cancelConfirmed = true;
+		second.cancelConfirmed = true;
+		try (RoutingGateway router = new RoutingGateway(ordered(first, second), true)) {
+			FakeGateway preferred = warmUp(router, first, second);
+			FakeGateway backup = preferred == first ? second : first;
+			preferred.next = slowFirst;
+			backup.next = slowSecond;
+			int warmUpCalls = backup.calls();
+			CompletableFuture<PaymentResult> pending = router.processPayment(AMOUNT, "order-8");
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (backup.calls() == warmUpCalls && System.nanoTime() < deadline) Thread.sleep(1);
+
+			slowFirst.complete(PaymentResult.gatewayError(preferred.name, AMOUNT, "timeout"));
+			slowSecond.complete(PaymentResult.unreachable(backup.name, AMOUNT, "connection refused"));
+
+			assertEquals(PaymentResult.Status.UNREACHABLE, pending.get(5, TimeUnit.SECONDS).status());
+			assertEquals(List.of("order-8"), preferred.cancelledKeys);
+			assertTrue(backup.cancelledKeys.isEmpty(), "the hedge never reached its gateway");
+			assertEquals(1, router.voids());
+		}
+	}
+
+	@Test
+	void retryUnderTheCallersKeyGoesBackToTheGatewayThatMayHaveCharged() throws Exception {
+		FakeGateway first = new FakeGateway("first", amount -> PaymentResult.gatewayError("first", amount, "timeout"));
+		FakeGateway second = new FakeGateway("second", amount -> PaymentResult.approved("second", amount, "tx-2"));
+		try (RoutingGateway router = new RoutingGateway(ordered(first, second))) {
+			assertEquals(PaymentResult.Status.GATEWAY_ERROR, router.processPayment(AMOUNT, "order-42").get(5, TimeUnit.SECONDS).status());
+
+			first.next = CompletableFuture.completedFuture(PaymentResult.approved("first", AMOUNT, "tx-1"));
+			PaymentResult retried = router.processPayment(AMOUNT, "order-42").get(5, TimeUnit.SECONDS);
+
+			assertEquals("tx-1", retried.transactionId());
+			assertEquals(List.of("order-42", "order-42"), first.keys);
+			assertTrue(second.keys.isEmpty());
+		}
+	}
+
+	@Test
+	void cancelPaymentGoesToTheGatewaysTheKeyWasSentTo() throws Exception {
+		FakeGateway first = new FakeGateway("first", amount -> PaymentResult.unreachable("first", amount, "connection refused"));
+		FakeGateway second = new FakeGateway("second", amount -> PaymentResult.approved("second", amount, "tx-2"));
+		FakeGateway third = new FakeGateway("third", amount -> PaymentResult.approved("third", amount, "tx-3"));
+		second.cancelConfirmed = true;
+		first.cancelConfirmed = true;
+		try (RoutingGateway router = new RoutingGateway(ordered(first, second, third))) {
+			router.processPayment(AMOUNT, "order-9").get(5, TimeUnit.SECONDS);
+
+			assertTrue(router.cancelPayment("order-9").get(5, TimeUnit.SECONDS));
+			assertEquals(List.of("order-9"), first.cancelledKeys);
+			assertEquals(List.of("order-9"), second.cancelledKeys);
+			assertTrue(third.cancelledKeys.isEmpty(), "the key never went to the third gateway");
+
+			// a key the router has not seen is cancelled everywhere, and third does not confirm
+			assertFalse(router.cancelPayment("order-10").get(5, TimeUnit.SECONDS));
+			assertEquals(List.of("order-10"), third.cancelledKeys);
+		}
+	}
+
+	@Test
+	void staleSuccessDoesNotCloseTheBreaker() {
+		RoutingGateway.CircuitBreaker breaker = new RoutingGateway.CircuitBreaker();
+		long slowCall = breaker.tryAcquire();
+		long[] failing = new long[5];
+		for (int i = 0; i < failing.length; i++) failing[i] = breaker.tryAcquire();
+		for (long generation : failing) breaker.onFailure(generation);
+		assertEquals(RoutingGateway.CircuitBreaker.State.OPEN, breaker.state());
+
+		breaker.onSuccess(slowCall); // admitted before the breaker opened
+
+		assertEquals(RoutingGateway.CircuitBreaker.State.OPEN, breaker.state());
+		assertEquals(RoutingGateway.CircuitBreaker.NOT_PERMITTED, breaker.tryAcquire());
+	}
+
+	@Test
+	void closeStopsTheHedgeTimer() throws Exception {
+		CompletableFuture<PaymentResult> slow = new CompletableFuture<>();
+		FakeGateway only = new FakeGateway("only", amount -> PaymentResult.approved("only", amount, "tx"));
+		RoutingGateway router = new RoutingGateway(Map.of("only", only), true);
+		for (int i = 0; i < 64; i++) {
+			router.processPayment(AMOUNT).get(5, TimeUnit.SECONDS);
+		}
+		only.next = slow;
+		CompletableFuture<PaymentResult> pending = router.processPayment(AMOUNT); // schedules a hedge, starting the timer
+		List<Thread> timers = Thread.getAllStackTraces().keySet().stream()
+				.filter(thread -> thread.getName().equals("payment-hedge-timer"))
+				.toList();
+		assertFalse(timers.isEmpty());
+
+		router.close();
+
+		for (Thread timer : timers) {
+			timer.join(5000);
+			assertFalse(timer.isAlive());
+		}
+		slow.complete(PaymentResult.approved("only", AMOUNT, "tx-slow"));
+		assertEquals("tx-slow", pending.get(5, TimeUnit.SECONDS).transactionId());
+	}
+
+	// Sends fast payments until the gateway the router prefers has a p99 to hedge on, and returns it. Which
+	// one that is depends on timing noise (class loading, GC) in the first samples, so tests don't assume it.
+	private static FakeGateway warmUp(RoutingGateway router, FakeGateway... gateways) throws Exception {
+		for (int i = 0; i < 1000; i++) {
+			String answeredBy = router.processPayment(AMOUNT).get(5, TimeUnit.SECONDS).gateway();
+			for (FakeGateway gateway : gateways) {
+				if (gateway.name.equals(answeredBy) && gateway.calls() >= 64) return gateway;
+			}
+		}
+		throw new AssertionError("no gateway settled as the preferred route");
+	}
+
+	private static Map<String, PaymentGateway> ordered(FakeGateway... gateways) {
+		// equal costs at the start, so the first gateway in iteration order is tried first
+		Map<String, PaymentGateway> byName = new LinkedHashMap<>();
+		for (FakeGateway gateway : gateways) byName.put(gateway.name, gateway);
+		return byName;
+	}
+
+	private static final class FakeGateway implements PaymentGateway {
+		final String name;
+		final Function<Money, PaymentResult> answer;
+		final List<String> keys = new ArrayList<>();
+		final List<String> cancelledKeys = new ArrayList<>();
+		final List<String> voidedTransactions = new ArrayList<>();
+		volatile CompletableFuture<PaymentResult> next;
+		volatile boolean cancelConfirmed;
+
+		FakeGateway(String name, Function<Money, PaymentResult> answer) {
+			this.name = name;
+			this.answer = answer;
+		}
+
+		@Override
+		public CompletableFuture<PaymentResult> processPayment(Money amount) {
+			return processPayment(amount, null);
+		}
+
+		@Override
+		public synchronized CompletableFuture<PaymentResult> processPayment(Money amount, String idempotencyKey) {
+			assertNotEquals(null, idempotencyKey);
+			keys.add(idempotencyKey);
+			if (next != null) return next;
+			return CompletableFuture.completedFuture(answer.apply(amount));
+		}
+
+		synchronized int calls() {
+			return keys.size();
+		}
+
+		@Override
+		public synchronized CompletableFuture<Boolean> voidPayment(String transactionId) {
+			voidedTransactions.add(transactionId);
+			return CompletableFuture.completedFuture(false);
+		}
+
+		@Override
+		public synchronized CompletableFuture<Boolean> cancelPayment(String idempotencyKey) {
+			cancelledKeys.add(idempotencyKey);
+			return CompletableFuture.completedFuture(cancelConfirmed);
+		}
+	}
+}
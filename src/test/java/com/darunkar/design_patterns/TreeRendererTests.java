@@ -0,0 +1,41 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TreeRendererTests {
+
+	private static final String NL = System.lineSeparator();
+
+	@Test
+	void rendersSizesLikeFileLeaf() throws IOException {
+		FolderComposite root = new FolderComposite("root");
+		root.add(new FileLeaf("small", 1023));
+		root.add(new FileLeaf("big", 1025));
+
+		StringBuilder out = new StringBuilder();
+		long lines = new TreeRenderer().render(root, out);
+
+		assertEquals(3, lines);
+		assertEquals("📁 root/" + NL + "  📄 small (1023B)" + NL + "  📄 big (2KB)" + NL, out.toString());
+	}
+
+	@Test
+	void honoursDepthLimitAndPaging() throws IOException {
+		FolderComposite root = new FolderComposite("root");
+		FolderComposite sub = new FolderComposite("sub");
+		sub.add(new FileLeaf("hidden", 1));
+		root.add(sub);
+		root.add(new FileLeaf("a", 1));
+		root.add(new FileLeaf("b", 1));
+
+		StringBuilder out = new StringBuilder();
+		long lines = new TreeRenderer(1, 1, 2).render(root, out);
+
+		assertEquals(2, lines);
+		assertEquals("  📁 sub/ ..." + NL + "  📄 a (1B)" + NL, out.toString());
+	}
+}
@@ -0,0 +1,54 @@
+package com.darunkar.design_patterns;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TreeSnapshotTests {
+
+	@Test
+	void reopenedSnapshotMatchesTheTree() throws IOException {
+		FolderComposite root = new FolderComposite("root");
+		FolderComposite docs = new FolderComposite("docs");
+		docs.add(new FileLeaf("a.txt", 100));
+		docs.add(new FileLeaf("b.txt", 2_000));
+		root.add(docs);
+		root.add(new FileLeaf("c.txt", 30));
+
+		Path file = Files.createTempFile("tree", ".snapshot");
+		try {
+			TreeSnapshot.write(root, file);
+			FileComponent view = TreeSnapshot.open(file).rootView();
+
+			assertEquals(3, view.countFiles());
+			assertEquals(2_130, view.getSize());
+			assertEquals("root/docs/b.txt", view.search("b.txt").getPath());
+			assertNull(view.search("missing"));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	void deleteOnASnapshotIsRefusedLikeOnAFile() throws IOException {
+		FolderComposite root = new FolderComposite("root");
+		root.add(new FileLeaf("keep", 1));
+
+		Path file = Files.createTempFile("tree", ".snapshot");
+		try {
+			TreeSnapshot.write(root, file);
+			FileComponent view = TreeSnapshot.open(file).rootView();
+
+			assertFalse(view.delete("keep"));
+			assertEquals(1, view.countFiles());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
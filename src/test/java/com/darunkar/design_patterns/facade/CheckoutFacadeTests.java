@@ -0,0 +1,189 @@
+package com.darunkar.design_patterns.facade;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckoutFacadeTests {
+
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+	private final List<String> events = new CopyOnWriteArrayList<>();
+	private final CountDownLatch compensated = new CountDownLatch(1);
+
+	@AfterEach
+	void shutdown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void placesOrderWhenEveryStepSucceeds() {
+		CheckoutFacade facade = facade(new RecordingInventory(0), new RecordingPayment(0, true));
+
+		assertTrue(facade.placeOrderAsync("cart-1", "card-1").join());
+		assertEquals(List.of("reserve cart-1", "pay card-1"), events);
+	}
+
+	@Test
+	void declinedPaymentReleasesReservation() {
+		CheckoutFacade facade = facade(new RecordingInventory(0), new RecordingPayment(0, false));
+
+		assertFalse(facade.placeOrderAsync("cart-1", "card-1").join());
+		assertEquals(List.of("reserve cart-1", "pay card-1", "release cart-1"), events);
+	}
+
+	@Test
+	void paymentThatSucceedsAfterTimeoutIsRefunded() throws InterruptedException {
+		CheckoutFacade facade = facade(new RecordingInventory(0), new RecordingPayment(300, true));
+
+		assertFalse(facade.placeOrderAsync("cart-1", "card-1").join());
+		assertTrue(events.contains("release cart-1"));
+
+		assertTrue(compensated.await(5, TimeUnit.SECONDS));
+		assertTrue(events.contains("refund card-1"));
+	}
+
+	@Test
+	void reservationThatCompletesAfterTimeoutIsReleased() throws InterruptedException {
+		CheckoutFacade facade = facade(new RecordingInventory(300), new RecordingPayment(0, true));
+
+		assertFalse(facade.placeOrderAsync("cart-1", "card-1").join());
+
+		assertTrue(compensated.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("reserve cart-1", "release cart-1"), events);
+	}
+
+	@Test
+	void batchChargesOncePerCartAndReleasesDeclinedCarts() {
+		RecordingPayment payment = new RecordingPayment(0, true) {
+			@Override
+			public List<Boolean> processPayments(List<String> paymentDetails) {
+				events.add("pay batch " + paymentDetails);
+				return paymentDetails.stream().map(details -> !details.equals("card-declined")).toList();
+			}
+		};
+		CheckoutFacade facade = facade(new RecordingInventory(0), payment);
+
+		List<OrderResult> results = facade.placeOrders(List.of(
+				new OrderRequest("cart-1", "card-1"),
+				new OrderRequest("cart-2", "card-declined"),
+				new OrderRequest("cart-1", "card-1")));
+
+		assertEquals(List.of(
+				new OrderResult("cart-1", true, "Order placed"),
+				new OrderResult("cart-2", false, "Payment failed"),
+				new OrderResult("cart-1", false, "Duplicate cart in batch")), results);
+		assertEquals(List.of("pay batch [card-1, card-declined]", "release cart-2"), events);
+	}
+
+	@Test
+	void failedPaymentBatchReleasesEveryReservation() {
+		RecordingPayment payment = new RecordingPayment(0, true) {
+			@Override
+			public List<Boolean> processPayments(List<String> paymentDetails) {
+				throw new IllegalStateException("payment provider down");
+			}
+		};
+		CheckoutFacade facade = facade(new RecordingInventory(0), payment);
+
+		assertThrows(IllegalStateException.class, () -> facade.placeOrders(List.of(
+				new OrderRequest("cart-1", "card-1"),
+				new OrderRequest("cart-2", "card-2"))));
+
+		assertTrue(events.containsAll(List.of("release cart-1", "release cart-2")), events.toString());
+	}
+
+	@Test
+	void cartsMissingFromAShortPaymentResultAreReleased() {
+		RecordingPayment payment = new RecordingPayment(0, true) {
+			@Override
+			public List<Boolean> processPayments(List<String> paymentDetails) {
+				return List.of(true);
+			}
+		};
+		CheckoutFacade facade = facade(new RecordingInventory(0), payment);
+
+		List<OrderResult> results = facade.placeOrders(List.of(
+				new OrderRequest("cart-1", "card-1"),
+				new OrderRequest("cart-2", "card-2")));
+
+		assertEquals(List.of(
+				new OrderResult("cart-1", true, "Order placed"),
+				new OrderResult("cart-2", false, "Payment failed")), results);
+		assertTrue(events.contains("release cart-2"));
+		assertFalse(events.contains("release cart-1"));
+	}
+
+	private CheckoutFacade facade(InventoryService inventory, PaymentService payment) {
+		CheckoutFacade facade = new CheckoutFacade(inventory, payment, new InvoiceService(),
+				new NotificationService(), executor);
+		ReflectionTestUtils.setField(facade, "reserveTimeoutMs", 100L);
+		ReflectionTestUtils.setField(facade, "paymentTimeoutMs", 100L);
+		ReflectionTestUtils.setField(facade, "invoiceTimeoutMs", 1000L);
+		ReflectionTestUtils.setField(facade, "notificationTimeoutMs", 1000L);
+		return facade;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private class RecordingInventory extends InventoryService {
+		private final long delayMs;
+
+		RecordingInventory(long delayMs) {
+			this.delayMs = delayMs;
+		}
+
+		@Override
+		public boolean reserveItems(String cartId) {
+			sleep(delayMs);
+			events.add("reserve " + cartId);
+			return true;
+		}
+
+		@Override
+		public void releaseItems(String cartId) {
+			events.add("release " + cartId);
+			if (delayMs > 0) compensated.countDown();
+		}
+	}
+
+	private class RecordingPayment extends PaymentService {
+		private final long delayMs;
+		private final boolean approve;
+
+		RecordingPayment(long delayMs, boolean approve) {
+			this.delayMs = delayMs;
+			this.approve = approve;
+		}
+
+		@Override
+		public boolean processPayment(String paymentDetails) {
+			sleep(delayMs);
+			events.add("pay " + paymentDetails);
+			return approve;
+		}
+
+		@Override
+		public void refundPayment(String paymentDetails) {
+			events.add("refund " + paymentDetails);
+			compensated.countDown();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.darunkar.design_patterns.facade;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyCacheTests {
+
+	private final IdempotencyCache cache = new IdempotencyCache(100, 600);
+	private final AtomicInteger runs = new AtomicInteger();
+
+	@Test
+	void successIsReplayedWithoutRunningAgain() {
+		assertTrue(cache.execute("key-1", "cart-1:a", () -> run(true)).join());
+		assertTrue(cache.execute("key-1", "cart-1:a", () -> run(true)).join());
+
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void failedResultIsNotRememberedSoRetryRunsAgain() {
+		assertFalse(cache.execute("cart-1", "cart-1:a", () -> run(false)).join());
+		assertEquals(0, cache.size());
+
+		assertTrue(cache.execute("cart-1", "cart-1:a", () -> run(true)).join());
+		assertEquals(2, runs.get());
+	}
+
+	@Test
+	void retryWithCorrectedPaymentRunsAfterFailure() {
+		assertFalse(cache.execute("cart-1", OrderService.fingerprint("cart-1", "expired-card"), () -> run(false)).join());
+
+		assertTrue(cache.execute("cart-1", OrderService.fingerprint("cart-1", "valid-card"), () -> run(true)).join());
+		assertEquals(2, runs.get());
+	}
+
+	@Test
+	void exceptionIsNotRemembered() {
+		CompletableFuture<Boolean> failed = cache.execute("key-1", "cart-1:a",
+				() -> CompletableFuture.failedFuture(new IllegalStateException("payment provider down")));
+		assertThrows(CompletionException.class, failed::join);
+
+		assertTrue(cache.execute("key-1", "cart-1:a", () -> run(true)).join());
+	}
+
+	@Test
+	void concurrentDuplicateSharesInFlightExecution() {
+		CompletableFuture<Boolean> pending = new CompletableFuture<>();
+		CompletableFuture<Boolean> first = cache.execute("key-1", "cart-1:a", () -> pending);
+		CompletableFuture<Boolean> duplicate = cache.execute("key-1", "cart-1:a", () -> run(true));
+
+		assertSame(first, duplicate);
+		pending.complete(true);
+		assertTrue(duplicate.join());
+		assertEquals(0, runs.get());
+	}
+
+	@Test
+	void keyReusedForDifferentRequestIsRejected() {
+		cache.execute("key-1", OrderService.fingerprint("cart-1", "card-1"), () -> run(true)).join();
+
+		assertThrows(IdempotencyKeyReusedException.class,
+				() -> cache.execute("key-1", OrderService.fingerprint("cart-2", "card-1"), () -> run(true)));
+		assertThrows(IdempotencyKeyReusedException.class,
+				() -> cache.execute("key-1", OrderService.fingerprint("cart-1", "card-2"), () -> run(true)));
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	void fingerprintDoesNotContainPaymentDetails() {
+		String fingerprint = OrderService.fingerprint("cart-1", "4242424242424242");
+
+		assertFalse(fingerprint.contains("4242424242424242"));
+		assertNotEquals(fingerprint, OrderService.fingerprint("cart-1", "4000000000000002"));
+	}
+
+	private CompletableFuture<Boolean> run(boolean success) {
+		runs.incrementAndGet();
+		return CompletableFuture.completedFuture(success);
+	}
+}
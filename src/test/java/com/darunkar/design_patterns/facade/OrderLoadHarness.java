@@ -0,0 +1,87 @@
+package com.darunkar.design_patterns.facade;/*
+ OrderLoadHarness.java
+ Closed-loop load generator for POST /orders/place, used to compare the
+ platform-thread and virtual-thread request modes.
+
+ How to run:
+ 1. Start the app in platform mode:
+      mvn spring-boot:run
+    or in virtual-thread mode (Java 21):
+      mvn -Pjava21 spring-boot:run -Dspring-boot.run.arguments=--spring.threads.virtual.enabled=true
+ 2. Run this class' main with: <baseUrl> <concurrency> <durationSeconds> <label>
+      e.g. http://localhost:8080 500 30 virtual
+ 3. Compare the printed throughput / p50 / p99 / p999 lines of both runs.
+*/
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class OrderLoadHarness {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String label = args.length > 3 ? args[3] : "run";
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong sequence = new AtomicLong();
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        // Keep exactly `concurrency` requests outstanding until the deadline
+        while (System.nanoTime() < deadline) {
+            if (!inFlight.tryAcquire(100, TimeUnit.MILLISECONDS)) {
+                continue;
+            }
+            long id = sequence.incrementAndGet();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + "/orders/place?cartId=cart-" + id + "&paymentDetails=card-" + id))
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+            long sentAt = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, ex) -> {
+                        if (ex != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        } else {
+                            latenciesNanos.add(System.nanoTime() - sentAt);
+                        }
+                        inFlight.release();
+                    });
+        }
+        inFlight.acquire(concurrency);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+
+        System.out.printf("[%s] concurrency=%d requests=%d errors=%d throughput=%.1f req/s%n",
+                label, concurrency, sorted.length, errors.get(), sorted.length / elapsedSeconds);
+        System.out.printf("[%s] p50=%.2fms p99=%.2fms p999=%.2fms max=%.2fms%n", label,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                percentileMillis(sorted, 0.999), percentileMillis(sorted, 1.0));
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,110 @@
+package com.darunkar.design_patterns.flyweight;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StyledDocumentTests {
+
+	private final List<String> rendered = new ArrayList<>();
+	private final TextStyle bold = new RecordingStyle("bold");
+	private final TextStyle plain = new RecordingStyle("plain");
+
+	@Test
+	void appendingTheSameStyleExtendsTheLastRun() {
+		StyledDocument doc = new StyledDocument()
+				.append("Hello", bold)
+				.append(", ", bold)
+				.append("world".toCharArray(), 0, 5, plain)
+				.append("", bold) // empty appends don't open runs
+				.append("!", plain);
+
+		assertEquals(2, doc.runCount());
+		assertEquals(2, doc.styleCount());
+		assertEquals(13, doc.length());
+
+		doc.render();
+		assertEquals(List.of("bold [0,7) 'Hello, '", "plain [7,13) 'world!'"), rendered);
+	}
+
+	@Test
+	void styleChangesSplitRunsAndReusedStylesShareAPaletteEntry() {
+		StyledDocument doc = new StyledDocument(2)
+				.append("a", bold)
+				.append("b", plain)
+				.append("c", bold);
+
+		assertEquals(3, doc.runCount());
+		assertEquals(2, doc.styleCount());
+		assertEquals("abc", String.valueOf(new char[] {doc.charAt(0), doc.charAt(1), doc.charAt(2)}));
+	}
+
+	@Test
+	void styleAtResolvesRunBoundaries() {
+		StyledDocument doc = new StyledDocument()
+				.append("aaa", bold)
+				.append("bb", plain)
+				.append("c", bold);
+
+		assertSame(bold, doc.styleAt(0));
+		assertSame(bold, doc.styleAt(2));  // last position of the first run
+		assertSame(plain, doc.styleAt(3)); // first position of the second run
+		assertSame(plain, doc.styleAt(4));
+		assertSame(bold, doc.styleAt(5));  // single-character last run
+		assertThrows(IndexOutOfBoundsException.class, () -> doc.styleAt(6));
+		assertThrows(IndexOutOfBoundsException.class, () -> doc.styleAt(-1));
+	}
+
+	@Test
+	void manyRunsGrowTheRunArrays() {
+		StyledDocument doc = new StyledDocument();
+		for (int i = 0; i < 100; i++) {
+			doc.append("x", i % 2 == 0 ? bold : plain);
+		}
+
+		assertEquals(100, doc.runCount());
+		for (int i = 0; i < 100; i++) {
+			assertSame(i % 2 == 0 ? bold : plain, doc.styleAt(i));
+		}
+	}
+
+	@Test
+	void trimToSizeDropsSlackAndKeepsContent() {
+		StyledDocument doc = new StyledDocument(1000)
+				.append("abc", bold)
+				.append("de", plain);
+		long before = doc.estimatedHeapBytes();
+
+		doc.trimToSize();
+
+		// 5 chars, 2 runs, palette of 4 slots
+		assertEquals(2L * 5 + 4L * 2 + 4L * 2 + 8L * 4, doc.estimatedHeapBytes());
+		assertTrue(doc.estimatedHeapBytes() < before);
+		assertSame(plain, doc.styleAt(4));
+		assertEquals('e', doc.charAt(4));
+
+		doc.append("f", plain); // still appendable after trimming
+		assertEquals(6, doc.length());
+		assertEquals(2, doc.runCount());
+	}
+
+	private final class RecordingStyle extends TextStyle {
+		private final String name;
+
+		RecordingStyle(String name) {
+			super(name, 12, "Black");
+			this.name = name;
+		}
+
+		@Override
+		public void applyStyle(char[] text, int start, int end) {
+			rendered.add(name + " [" + start + "," + end + ") '" + new String(text, start, end - start) + "'");
+		}
+	}
+}
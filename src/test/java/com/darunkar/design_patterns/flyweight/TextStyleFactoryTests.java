@@ -0,0 +1,126 @@
+package com.darunkar.design_patterns.flyweight;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextStyleFactoryTests {
+
+	@Test
+	void sameAttributesShareOneInstance() {
+		TextStyleFactory factory = new TextStyleFactory();
+
+		TextStyle style = factory.getStyle("Arial", 12, "Black");
+
+		assertSame(style, factory.getStyle("Arial", 12, "Black"));
+		assertSame(style, factory.getStyle(factory.keyOf("Arial", 12, "Black")));
+		assertNotSame(style, factory.getStyle("Arial", 14, "Black"));
+		assertEquals(new TextStyleFactory.Stats(2, 2, 0, 2), factory.stats());
+	}
+
+	@Test
+	void keyOfResolvesStylesNotCreatedYet() {
+		TextStyleFactory factory = new TextStyleFactory();
+		long key = factory.keyOf("Courier", 10, "Green");
+
+		assertEquals(new TextStyle("Courier", 10, "Green"), factory.getStyle(key));
+		assertSame(factory.getStyle(key), factory.getStyle("Courier", 10, "Green"));
+	}
+
+	@Test
+	void rejectsOutOfRangeFontSizeAndUnknownKeys() {
+		TextStyleFactory factory = new TextStyleFactory();
+
+		assertThrows(IllegalArgumentException.class, () -> factory.getStyle("Arial", -1, "Black"));
+		assertThrows(IllegalArgumentException.class, () -> factory.getStyle("Arial", 0x10000, "Black"));
+		assertThrows(IllegalArgumentException.class, () -> factory.getStyle(42L << 40 | 7L << 16 | 12));
+	}
+
+	@Test
+	void boundedFactoryKeepsRecentlyUsedStyles() {
+		TextStyleFactory factory = new TextStyleFactory(4);
+		TextStyle hot = factory.getStyle("Arial", 12, "Black");
+		for (String color : new String[]{"Red", "Blue", "Green"}) factory.getStyle("Arial", 12, color);
+
+		factory.getStyle("Arial", 12, "Black"); // referenced since the last sweep of the clock hand
+		factory.getStyle("Arial", 12, "White");
+
+		assertEquals(4, factory.size());
+		assertEquals(1, factory.stats().evictions());
+		assertSame(hot, factory.getStyle("Arial", 12, "Black"));
+	}
+
+	@Test
+	void boundedFactoryAlsoBoundsInternedNames() {
+		TextStyleFactory factory = new TextStyleFactory(64);
+
+		for (int i = 0; i < 200_000; i++) {
+			factory.getStyle("Font-" + (i % 7), 12, "#" + Integer.toHexString(i));
+			assertTrue(factory.size() <= 64);
+		}
+
+		assertTrue(factory.internedNames() <= 2 * (2 * 64 + 16) + 1, "interned: " + factory.internedNames());
+	}
+
+	@Test
+	void staleKeyFailsInsteadOfResolvingToAnotherStyle() {
+		TextStyleFactory factory = new TextStyleFactory(2);
+		long key = factory.keyOf("Arial", 12, "Black");
+		for (int i = 0; i < 1_000; i++) factory.getStyle("Arial", 12, "color-" + i);
+
+		assertThrows(IllegalArgumentException.class, () -> factory.getStyle(key));
+		assertEquals(new TextStyle("Arial", 12, "Black"), factory.getStyle(factory.keyOf("Arial", 12, "Black")));
+	}
+
+	@Test
+	void boundedFactoryAlwaysReturnsTheRequestedStyle() {
+		TextStyleFactory factory = new TextStyleFactory(50);
+		Random random = new Random(42);
+
+		for (int i = 0; i < 100_000; i++) {
+			String font = "font-" + random.nextInt(20);
+			int size = 8 + random.nextInt(10);
+			String color = "color-" + random.nextInt(20);
+			TextStyle style = random.nextBoolean()
+					? factory.getStyle(font, size, color)
+					: factory.getStyle(factory.keyOf(font, size, color));
+			assertEquals(new TextStyle(font, size, color), style);
+		}
+		assertEquals(50, factory.size());
+	}
+
+	@Test
+	void concurrentCallersShareOneInstancePerStyle() throws Exception {
+		TextStyleFactory factory = new TextStyleFactory();
+		Set<TextStyle> seen = ConcurrentHashMap.newKeySet();
+		ExecutorService threads = Executors.newFixedThreadPool(8);
+		try {
+			Future<?>[] workers = new Future<?>[8];
+			for (int t = 0; t < workers.length; t++) {
+				workers[t] = threads.submit(() -> {
+					for (int i = 0; i < 10_000; i++) {
+						seen.add(factory.getStyle("font-" + (i % 10), 12, "color-" + (i % 30)));
+					}
+				});
+			}
+			for (Future<?> worker : workers) worker.get(30, TimeUnit.SECONDS);
+		} finally {
+			threads.shutdownNow();
+		}
+
+		assertEquals(30, factory.size());
+		assertEquals(30, seen.size());
+	}
+}